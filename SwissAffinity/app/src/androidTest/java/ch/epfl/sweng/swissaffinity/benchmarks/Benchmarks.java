@@ -0,0 +1,40 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.support.test.InstrumentationRegistry;
+
+/**
+ * Size of the benchmark runs.
+ * <p/>
+ * In the normal test run, the benchmarks run on small inputs and only check their results.
+ * Their full runs, whose timings are logged, are asked for with the instrumentation
+ * argument "benchmark", f.ex.:
+ * <pre>
+ * adb shell am instrument -w -e benchmark true \
+ *     -e package ch.epfl.sweng.swissaffinity.benchmarks \
+ *     ch.epfl.sweng.swissaffinity.test/android.support.test.runner.AndroidJUnitRunner
+ * </pre>
+ * None of them asserts on timings, which depend on the device and its load.
+ */
+final class Benchmarks {
+
+    private static final String ARGUMENT = "benchmark";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @return if the full runs were asked for
+     */
+    static boolean isFullRun() {
+        return Boolean.parseBoolean(InstrumentationRegistry.getArguments().getString(ARGUMENT));
+    }
+
+    /**
+     * @param small the size in the normal test run
+     * @param full  the size in the full runs
+     * @return the size of the current run
+     */
+    static int size(int small, int full) {
+        return isFullRun() ? full : small;
+    }
+}
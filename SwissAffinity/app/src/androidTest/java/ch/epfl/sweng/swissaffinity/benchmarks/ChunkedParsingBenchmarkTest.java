@@ -0,0 +1,95 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Locale;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ChunkedEventParser;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.JSONTreeReader;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Time to parse a synthetic array of events (20k in the full runs) in chunks on 1, 2 and
+ * 4 worker threads.
+ *
+ * @see Benchmarks
+ */
+@LargeTest
+public class ChunkedParsingBenchmarkTest {
+
+    private static final String TAG = "ChunkedParsing";
+    private static final int EVENTS = Benchmarks.size(1000, 20000);
+    private static final int[] THREADS = {1, 2, 4};
+    private static final int ROUNDS = Benchmarks.size(1, 3);
+
+    private static JSONArray sJsonEvents;
+
+    @BeforeClass
+    public static void createEvents() throws IOException, JSONException {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < EVENTS; ++i) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            String event = DataForTesting.event4JSONcontent;
+            payload.append(event.replace("{\"id\":4,", "{\"id\":" + i + ","));
+        }
+        sJsonEvents = JSONTreeReader.readArray(new StringReader(payload.append(']').toString()));
+    }
+
+    @Test
+    public void testScaling() throws JSONException, ParserException {
+        StringBuilder report = new StringBuilder();
+        long sequential = 0;
+        for (int threads : THREADS) {
+            ChunkedEventParser parser =
+                new ChunkedEventParser(threads, ChunkedEventParser.DEFAULT_CHUNK_SIZE);
+            try {
+                parser.parse(sJsonEvents); // warm up
+                long best = Long.MAX_VALUE;
+                List<Event> events = null;
+                for (int i = 0; i < ROUNDS; ++i) {
+                    long start = System.nanoTime();
+                    events = parser.parse(sJsonEvents);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                assertEquals(EVENTS, events.size());
+                for (int i = 0; i < EVENTS; ++i) {
+                    assertEquals(i, events.get(i).getId());
+                }
+                if (threads == 1) {
+                    sequential = best;
+                }
+                report.append(
+                    String.format(
+                        Locale.US,
+                        ", %d thread(s) %d ms (x%.2f)",
+                        threads,
+                        best / 1000000,
+                        (double) sequential / best));
+            } finally {
+                parser.shutdown();
+            }
+        }
+        Log.i(
+            TAG, String.format(
+                Locale.US,
+                "%d events on %d cores%s",
+                EVENTS,
+                Runtime.getRuntime().availableProcessors(),
+                report));
+    }
+}
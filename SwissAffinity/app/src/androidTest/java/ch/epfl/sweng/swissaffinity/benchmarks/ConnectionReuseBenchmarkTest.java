@@ -0,0 +1,100 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.Locale;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.utilities.network.DefaultNetworkProvider;
+import ch.epfl.sweng.swissaffinity.utilities.network.NetworkProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Per-request latency of a burst of GETs, with and without connection reuse.
+ */
+@LargeTest
+public class ConnectionReuseBenchmarkTest {
+
+    private static final String TAG = "ConnectionReuse";
+    private static final String EVENTS = "/api/events";
+    private static final int BURST = 200;
+
+    private StubHttpServer mServer;
+    private NetworkProvider mNetworkProvider;
+
+    @Before
+    public void setUp() throws IOException {
+        mServer = new StubHttpServer();
+        mServer.setResponse(EVENTS, DataForTesting.allEventsJSONcontent);
+        mNetworkProvider = new DefaultNetworkProvider();
+    }
+
+    @After
+    public void tearDown() {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void testBurstOfGets() throws IOException {
+        String url = mServer.getUrl() + EVENTS;
+        getWithoutReuse(url); // warm up
+        int connections = mServer.getConnectionCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < BURST; ++i) {
+            getWithoutReuse(url);
+        }
+        long withoutReuse = System.nanoTime() - start;
+        int connectionsWithoutReuse = mServer.getConnectionCount() - connections;
+
+        mNetworkProvider.getContent(url); // warm up
+        connections = mServer.getConnectionCount();
+        start = System.nanoTime();
+        for (int i = 0; i < BURST; ++i) {
+            mNetworkProvider.getContent(url);
+        }
+        long withReuse = System.nanoTime() - start;
+        int connectionsWithReuse = mServer.getConnectionCount() - connections;
+
+        Log.i(
+            TAG, String.format(
+                Locale.US,
+                "%d GETs: without reuse %d us/request (%d connections), " +
+                "with reuse %d us/request (%d connections)",
+                BURST,
+                withoutReuse / BURST / 1000,
+                connectionsWithoutReuse,
+                withReuse / BURST / 1000,
+                connectionsWithReuse));
+
+        assertEquals(BURST, connectionsWithoutReuse);
+        assertTrue(connectionsWithReuse < connectionsWithoutReuse);
+    }
+
+    /**
+     * The behaviour of a connection which is never given back to the pool.
+     */
+    private void getWithoutReuse(String url) throws IOException {
+        HttpURLConnection conn = mNetworkProvider.getConnection(url);
+        conn.setRequestProperty("Connection", "close");
+        InputStream stream = conn.getInputStream();
+        try {
+            byte[] buffer = new byte[4096];
+            while (stream.read(buffer) != -1) {
+                // discard
+            }
+        } finally {
+            stream.close();
+            conn.disconnect();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import ch.epfl.sweng.swissaffinity.utilities.parsers.DateParser;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Cost of the date formatting when the rows of the event list are bound again and
+ * again while scrolling, with a new SimpleDateFormat per bind (the previous behaviour
+ * of DateParser.dateToString) and with the cache of DateParser.
+ *
+ * @see Benchmarks
+ */
+@LargeTest
+public class DateFormattingBenchmarkTest {
+
+    private static final String TAG = "DateFormatting";
+    private static final int ROWS = 50;
+    private static final int SCROLLS = Benchmarks.size(10, 200);
+
+    @Test
+    public void testBindRows() {
+        Date[] dates = new Date[ROWS];
+        long start = 1447959600000L; // 2015-11-19T20:00:00+0100
+        for (int i = 0; i < ROWS; ++i) {
+            dates[i] = new Date(start + i * 24 * 60 * 60 * 1000L);
+        }
+        scrollWithFormats(dates); // warm up
+        scrollWithCache(dates);
+
+        long begin = System.nanoTime();
+        String[] expected = scrollWithFormats(dates);
+        long withFormats = System.nanoTime() - begin;
+
+        begin = System.nanoTime();
+        String[] formatted = scrollWithCache(dates);
+        long withCache = System.nanoTime() - begin;
+
+        int binds = ROWS * SCROLLS;
+        Log.i(
+            TAG, String.format(
+                Locale.US,
+                "%d binds: SimpleDateFormat %d ns/bind, cache %d ns/bind",
+                binds,
+                withFormats / binds,
+                withCache / binds));
+
+        for (int i = 0; i < ROWS; ++i) {
+            assertEquals(expected[i], formatted[i]);
+        }
+    }
+
+    private static String[] scrollWithFormats(Date[] dates) {
+        String[] formatted = new String[dates.length];
+        for (int scroll = 0; scroll < SCROLLS; ++scroll) {
+            for (int i = 0; i < dates.length; ++i) {
+                SimpleDateFormat dateFormat =
+                    new SimpleDateFormat("dd MMMM yyyy - HH:mm", Locale.getDefault());
+                formatted[i] = dateFormat.format(dates[i].getTime());
+            }
+        }
+        return formatted;
+    }
+
+    private static String[] scrollWithCache(Date[] dates) {
+        String[] formatted = new String[dates.length];
+        for (int scroll = 0; scroll < SCROLLS; ++scroll) {
+            for (int i = 0; i < dates.length; ++i) {
+                formatted[i] = DateParser.dateToString(dates[i]);
+            }
+        }
+        return formatted;
+    }
+}
@@ -0,0 +1,80 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import ch.epfl.sweng.swissaffinity.utilities.parsers.DateParser;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Time to parse server dates, with a new SimpleDateFormat per date (the previous
+ * behaviour of DateParser) and with DateParser.
+ *
+ * @see Benchmarks
+ */
+@LargeTest
+public class DateParsingBenchmarkTest {
+
+    private static final String TAG = "DateParsing";
+    private static final int DATES = Benchmarks.size(1000, 30000);
+
+    @Test
+    public void testParseServerDates() throws ParseException, ParserException {
+        String[] dates = new String[DATES];
+        for (int i = 0; i < DATES; ++i) {
+            dates[i] = String.format(
+                Locale.US,
+                "20%02d-%02d-%02dT%02d:%02d:%02d%s%02d00",
+                i % 30, i % 12 + 1, i % 28 + 1, i % 24, i % 60, (i * 7) % 60,
+                i % 2 == 0 ? "+" : "-", i % 13);
+        }
+        parseWithFormats(dates); // warm up
+        parseWithDateParser(dates);
+
+        long start = System.nanoTime();
+        Date[] expected = parseWithFormats(dates);
+        long withFormats = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Date[] parsed = parseWithDateParser(dates);
+        long withDateParser = System.nanoTime() - start;
+
+        Log.i(
+            TAG, String.format(
+                Locale.US,
+                "%d dates: SimpleDateFormat %d ns/date, DateParser %d ns/date",
+                DATES,
+                withFormats / DATES,
+                withDateParser / DATES));
+
+        for (int i = 0; i < DATES; ++i) {
+            assertEquals(dates[i], expected[i], parsed[i]);
+        }
+    }
+
+    private static Date[] parseWithFormats(String[] dates) throws ParseException {
+        Date[] parsed = new Date[dates.length];
+        for (int i = 0; i < dates.length; ++i) {
+            parsed[i] = new SimpleDateFormat(DateParser.SERVER_DATE_FORMAT, Locale.getDefault())
+                .parse(dates[i]);
+        }
+        return parsed;
+    }
+
+    private static Date[] parseWithDateParser(String[] dates) throws ParserException {
+        Date[] parsed = new Date[dates.length];
+        for (int i = 0; i < dates.length; ++i) {
+            parsed[i] = DateParser.parseFromString(dates[i], DateParser.SERVER_DATE_FORMAT);
+        }
+        return parsed;
+    }
+}
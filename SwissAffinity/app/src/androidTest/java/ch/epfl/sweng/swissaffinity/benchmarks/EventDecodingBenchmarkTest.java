@@ -0,0 +1,136 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.os.Debug;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.JSONTreeReader;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.Parser;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserFactory;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.events.EventStreamDecoder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Throughput and allocations of the decoding of a synthetic list of events (10k in the
+ * full runs), with the JSON parsers and with the stream decoder.
+ *
+ * @see Benchmarks
+ */
+@LargeTest
+public class EventDecodingBenchmarkTest {
+
+    private static final String TAG = "EventDecoding";
+    private static final int EVENTS = Benchmarks.size(200, 10000);
+
+    private static String sPayload;
+
+    @BeforeClass
+    public static void createPayload() {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < EVENTS; ++i) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            String event = DataForTesting.event4JSONcontent;
+            payload.append(event.replace("{\"id\":4,", "{\"id\":" + i + ","));
+        }
+        sPayload = payload.append(']').toString();
+    }
+
+    @Test
+    public void testDecodeEvents() throws IOException, JSONException, ParserException {
+        decodeWithParsers(); // warm up
+        decodeWithDecoder();
+
+        Measure parsers = new Measure();
+        List<Event> parsed = decodeWithParsers();
+        parsers.stop();
+
+        Measure decoder = new Measure();
+        List<Event> decoded = decodeWithDecoder();
+        decoder.stop();
+
+        Log.i(
+            TAG, String.format(
+                Locale.US,
+                "%d events (%d chars): parsers %s, decoder %s",
+                EVENTS,
+                sPayload.length(),
+                parsers,
+                decoder));
+
+        assertEquals(EVENTS, parsed.size());
+        assertEquals(EVENTS, decoded.size());
+        for (int i = 0; i < EVENTS; ++i) {
+            assertEquals(parsed.get(i).getId(), decoded.get(i).getId());
+            assertEquals(parsed.get(i), decoded.get(i));
+        }
+    }
+
+    private static List<Event> decodeWithParsers()
+        throws IOException, JSONException, ParserException
+    {
+        List<Event> events = new ArrayList<>();
+        JSONArray jsonEvents = JSONTreeReader.readArray(new StringReader(sPayload));
+        for (int i = 0; i < jsonEvents.length(); ++i) {
+            SafeJSONObject jsonObject = new SafeJSONObject(jsonEvents.getJSONObject(i));
+            Parser<? extends Event> parser = ParserFactory.parserFor(jsonObject);
+            events.add(parser.parse(jsonObject));
+        }
+        return events;
+    }
+
+    private static List<Event> decodeWithDecoder() throws IOException, ParserException {
+        List<Event> events = new ArrayList<>();
+        new EventStreamDecoder().decodeEvents(new StringReader(sPayload), events);
+        return events;
+    }
+
+    /**
+     * Time and bytes allocated by the current thread.
+     */
+    @SuppressWarnings("deprecation")
+    private static final class Measure {
+        private final long mStart;
+        private long mNanos;
+        private long mBytes;
+
+        Measure() {
+            Debug.startAllocCounting();
+            Debug.resetThreadAllocSize();
+            mStart = System.nanoTime();
+        }
+
+        void stop() {
+            mNanos = System.nanoTime() - mStart;
+            mBytes = Debug.getThreadAllocSize();
+            Debug.stopAllocCounting();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                Locale.US,
+                "%d ms (%d events/s, %d KB allocated)",
+                mNanos / 1000000,
+                EVENTS * 1000000000L / Math.max(1, mNanos),
+                mBytes / 1024);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.utilities.Location;
+import ch.epfl.sweng.swissaffinity.utilities.network.DefaultNetworkProvider;
+import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClientException;
+import ch.epfl.sweng.swissaffinity.utilities.network.events.NetworkEventClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time to fetch the events of all the locations, in sequence and with several requests
+ * in flight, from a server answering after a fixed latency. Every location lists the same
+ * events, which are returned once.
+ *
+ * @see Benchmarks
+ */
+@LargeTest
+public class FanOutBenchmarkTest {
+
+    private static final String TAG = "FanOut";
+    private static final long LATENCY = Benchmarks.size(10, 100); // milliseconds
+    private static final int MAX_IN_FLIGHT = 4;
+
+    private StubHttpServer mServer;
+    private NetworkEventClient mEventClient;
+    private int mDistinctEvents;
+
+    @Before
+    public void setUp() throws IOException, JSONException {
+        mServer = new StubHttpServer();
+        for (Location location : DataForTesting.LOCATIONS) {
+            mServer.setResponse(
+                "/api/locations/" + location.getId() + "/api/events",
+                DataForTesting.allEventsJSONcontent);
+        }
+        JSONArray events = new JSONArray(DataForTesting.allEventsJSONcontent);
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < events.length(); ++i) {
+            ids.add(events.getJSONObject(i).getInt("id"));
+        }
+        mDistinctEvents = ids.size();
+        mEventClient = new NetworkEventClient(mServer.getUrl(), new DefaultNetworkProvider());
+    }
+
+    @After
+    public void tearDown() {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void testFetchAllFor() throws EventClientException {
+        mEventClient.fetchAllFor(DataForTesting.LOCATIONS); // warm up
+        mServer.setLatency(LATENCY);
+
+        mEventClient.setMaxInFlight(1);
+        long start = System.nanoTime();
+        List<Event> sequential = mEventClient.fetchAllFor(DataForTesting.LOCATIONS);
+        long sequentialNanos = System.nanoTime() - start;
+
+        mEventClient.setMaxInFlight(MAX_IN_FLIGHT);
+        start = System.nanoTime();
+        List<Event> concurrent = mEventClient.fetchAllFor(DataForTesting.LOCATIONS);
+        long concurrentNanos = System.nanoTime() - start;
+
+        Log.i(
+            TAG, String.format(
+                Locale.US,
+                "%d locations at %d ms: %d ms in sequence, %d ms with %d in flight",
+                DataForTesting.LOCATIONS.size(),
+                LATENCY,
+                sequentialNanos / 1000000,
+                concurrentNanos / 1000000,
+                MAX_IN_FLIGHT));
+
+        assertEquals(mDistinctEvents, sequential.size());
+        assertEquals(sequential.size(), concurrent.size());
+        for (int i = 0; i < sequential.size(); ++i) {
+            assertEquals(sequential.get(i).getId(), concurrent.get(i).getId());
+        }
+        assertTrue(mServer.getMaxInFlight() <= MAX_IN_FLIGHT);
+    }
+}
@@ -0,0 +1,132 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.Interner;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.events.EventStreamDecoder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Heap retained by a synthetic catalogue of events (10k in the full runs) held in 50
+ * establishments of 10 locations, without and with the interning of the locations and
+ * establishments.
+ *
+ * @see Benchmarks
+ */
+@LargeTest
+public class InterningBenchmarkTest {
+
+    private static final String TAG = "Interning";
+    private static final int EVENTS = Benchmarks.size(500, 10000);
+    private static final int ESTABLISHMENTS = 50;
+    private static final int LOCATIONS = 10;
+
+    private static String sPayload;
+
+    @BeforeClass
+    public static void createPayload() {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < EVENTS; ++i) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            String event = DataForTesting.event4JSONcontent
+                .replace("{\"id\":4,", "{\"id\":" + i + ",")
+                .replace(
+                    "\"location\":{\"id\":3,",
+                    "\"location\":{\"id\":" + (i % LOCATIONS) + ",")
+                .replace(
+                    "\"establishment\":{\"id\":1,",
+                    "\"establishment\":{\"id\":" + (i % ESTABLISHMENTS) + ",");
+            payload.append(event);
+        }
+        sPayload = payload.append(']').toString();
+    }
+
+    @After
+    public void tearDown() {
+        Interner.LOCATIONS.setEnabled(true);
+        Interner.ESTABLISHMENTS.setEnabled(true);
+    }
+
+    @Test
+    public void testRetainedHeap() throws IOException, ParserException {
+        setInterning(false);
+        long before = usedHeap();
+        List<Event> separate = decode();
+        long withoutInterning = usedHeap() - before;
+        int separateVenues = distinctVenues(separate);
+        separate = null;
+
+        setInterning(true);
+        before = usedHeap();
+        List<Event> shared = decode();
+        long withInterning = usedHeap() - before;
+        int sharedVenues = distinctVenues(shared);
+
+        Log.i(
+            TAG, String.format(
+                Locale.US,
+                "%d events: %d KB and %d venue instances without interning, "
+                + "%d KB and %d venue instances with interning",
+                EVENTS,
+                withoutInterning / 1024,
+                separateVenues,
+                withInterning / 1024,
+                sharedVenues));
+
+        assertEquals(EVENTS, shared.size());
+        assertEquals(EVENTS * 2, separateVenues);
+        assertEquals(ESTABLISHMENTS + LOCATIONS, sharedVenues);
+    }
+
+    private static void setInterning(boolean enabled) {
+        Interner.LOCATIONS.setEnabled(enabled);
+        Interner.ESTABLISHMENTS.setEnabled(enabled);
+    }
+
+    private static List<Event> decode() throws IOException, ParserException {
+        List<Event> events = new ArrayList<>();
+        new EventStreamDecoder().decodeEvents(new StringReader(sPayload), events);
+        return events;
+    }
+
+    /**
+     * @return the number of distinct location and establishment instances
+     */
+    private static int distinctVenues(List<Event> events) {
+        Map<Object, Boolean> venues = new IdentityHashMap<>();
+        for (Event event : events) {
+            venues.put(event.getLocation(), true);
+            venues.put(((SpeedDatingEvent) event).getEstablishment(), true);
+        }
+        return venues.size();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
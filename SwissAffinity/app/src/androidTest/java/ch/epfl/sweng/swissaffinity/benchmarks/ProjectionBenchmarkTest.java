@@ -0,0 +1,100 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
+import ch.epfl.sweng.swissaffinity.utilities.network.DefaultNetworkProvider;
+import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClientException;
+import ch.epfl.sweng.swissaffinity.utilities.network.events.NetworkEventClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bytes sent by the server and time to fetch a catalogue of events (2000 in the full
+ * runs), as complete events and as summaries projected on the attributes of the lists.
+ *
+ * @see Benchmarks
+ */
+@LargeTest
+public class ProjectionBenchmarkTest {
+
+    private static final String TAG = "Projection";
+    private static final String EVENTS = "/api/events";
+    private static final int CATALOGUE = Benchmarks.size(100, 2000);
+    private static final int ROUNDS = Benchmarks.size(1, 5);
+
+    private StubHttpServer mServer;
+    private NetworkEventClient mEventClient;
+
+    @Before
+    public void setUp() throws IOException {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < CATALOGUE; ++i) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            String event = DataForTesting.event4JSONcontent;
+            payload.append(event.replace("{\"id\":4,", "{\"id\":" + i + ","));
+        }
+        mServer = new StubHttpServer();
+        mServer.setResponse(EVENTS, payload.append(']').toString());
+        mEventClient = new NetworkEventClient(mServer.getUrl(), new DefaultNetworkProvider());
+    }
+
+    @After
+    public void tearDown() {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void testFetchProjection() throws EventClientException {
+        mEventClient.fetchAll(); // warm up
+        mEventClient.fetchSummaries();
+
+        long bytes = mServer.getBytesSent();
+        long start = System.nanoTime();
+        List<Event> events = null;
+        for (int i = 0; i < ROUNDS; ++i) {
+            events = mEventClient.fetchAll();
+        }
+        long fullNanos = (System.nanoTime() - start) / ROUNDS;
+        long fullBytes = (mServer.getBytesSent() - bytes) / ROUNDS;
+
+        bytes = mServer.getBytesSent();
+        start = System.nanoTime();
+        List<EventSummary> summaries = null;
+        for (int i = 0; i < ROUNDS; ++i) {
+            summaries = mEventClient.fetchSummaries();
+        }
+        long summaryNanos = (System.nanoTime() - start) / ROUNDS;
+        long summaryBytes = (mServer.getBytesSent() - bytes) / ROUNDS;
+
+        Log.i(
+            TAG, String.format(
+                Locale.US,
+                "%d events: complete %d KB in %d ms, projected %d KB in %d ms",
+                CATALOGUE,
+                fullBytes / 1024,
+                fullNanos / 1000000,
+                summaryBytes / 1024,
+                summaryNanos / 1000000));
+
+        assertEquals(CATALOGUE, summaries.size());
+        for (int i = 0; i < CATALOGUE; ++i) {
+            assertEquals(new EventSummary(events.get(i)), summaries.get(i));
+        }
+        assertTrue(summaryBytes < fullBytes);
+    }
+}
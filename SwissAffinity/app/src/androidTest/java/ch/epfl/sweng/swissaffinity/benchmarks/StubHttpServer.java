@@ -0,0 +1,344 @@
+package ch.epfl.sweng.swissaffinity.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Minimal HTTP/1.1 server listening on the loopback interface.
+ * It serves canned bodies by path, with an ETag, and supports keep-alive, gzip and
+ * conditional GET, so that the network code can be measured offline.
+ * <p/>
+ * A request with a "fields" parameter ("?fields=id,name") gets the array of objects of
+ * its path projected on the given attributes.
+ * <p/>
+ * A latency can be injected before each response, to measure concurrent requests.
+ */
+public class StubHttpServer {
+
+    private static final String CRLF = "\r\n";
+    private static final String FIELDS = "fields=";
+
+    private final ServerSocket mServerSocket;
+    private final ExecutorService mExecutor = Executors.newCachedThreadPool();
+    private final Map<String, byte[]> mResponses = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> mProjections = new ConcurrentHashMap<>();
+    private final AtomicInteger mConnections = new AtomicInteger();
+    private final AtomicInteger mRequests = new AtomicInteger();
+    private final AtomicLong mBytesSent = new AtomicLong();
+    private final AtomicInteger mInFlight = new AtomicInteger();
+    private final AtomicInteger mMaxInFlight = new AtomicInteger();
+    private volatile long mLatency;
+
+    /**
+     * Start a server on a free port.
+     *
+     * @throws IOException if the port cannot be opened
+     */
+    public StubHttpServer() throws IOException {
+        mServerSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        mExecutor.execute(
+            new Runnable() {
+                @Override
+                public void run() {
+                    accept();
+                }
+            });
+    }
+
+    /**
+     * @return the base URL of the server (without trailing slash)
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + mServerSocket.getLocalPort();
+    }
+
+    /**
+     * Set the body served for the given path.
+     *
+     * @param path the path, with its query string if any
+     * @param body the JSON body
+     */
+    public void setResponse(String path, String body) {
+        try {
+            mResponses.put(path, body.getBytes("UTF-8"));
+            mProjections.clear();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Set the latency injected before each response.
+     *
+     * @param latency the latency, in milliseconds
+     */
+    public void setLatency(long latency) {
+        mLatency = latency;
+    }
+
+    /**
+     * @return the largest number of requests served at the same time so far
+     */
+    public int getMaxInFlight() {
+        return mMaxInFlight.get();
+    }
+
+    /**
+     * @return the number of TCP connections accepted so far
+     */
+    public int getConnectionCount() {
+        return mConnections.get();
+    }
+
+    /**
+     * @return the number of bytes sent so far, headers included
+     */
+    public long getBytesSent() {
+        return mBytesSent.get();
+    }
+
+    /**
+     * @return the number of requests served so far
+     */
+    public int getRequestCount() {
+        return mRequests.get();
+    }
+
+    /**
+     * Stop the server and close all the connections.
+     */
+    public void shutdown() {
+        try {
+            mServerSocket.close();
+        } catch (IOException e) {
+            // already closed.
+        }
+        mExecutor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!mServerSocket.isClosed()) {
+            try {
+                final Socket socket = mServerSocket.accept();
+                socket.setTcpNoDelay(true);
+                mConnections.incrementAndGet();
+                mExecutor.execute(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(socket);
+                        }
+                    });
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            String requestLine;
+            while ((requestLine = readLine(in)) != null && !requestLine.isEmpty()) {
+                Map<String, String> headers = readHeaders(in);
+                skipBody(in, headers);
+                mRequests.incrementAndGet();
+                String target = requestLine.split(" ")[1];
+                boolean close = "close".equalsIgnoreCase(headers.get("connection"));
+                int inFlight = mInFlight.incrementAndGet();
+                try {
+                    updateMaxInFlight(inFlight);
+                    delay();
+                    respond(out, target, headers, close);
+                } finally {
+                    mInFlight.decrementAndGet();
+                }
+                if (close) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // client went away.
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing to do.
+            }
+        }
+    }
+
+    private void respond(
+        OutputStream out,
+        String target,
+        Map<String, String> headers,
+        boolean close) throws IOException
+    {
+        byte[] body = mResponses.get(target);
+        if (body == null && target.contains("?")) {
+            body = project(target);
+        }
+        StringBuilder head = new StringBuilder();
+        if (body == null) {
+            body = new byte[0];
+            head.append("HTTP/1.1 404 Not Found").append(CRLF);
+        } else {
+            String eTag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+            if (eTag.equals(headers.get("if-none-match"))) {
+                body = new byte[0];
+                head.append("HTTP/1.1 304 Not Modified").append(CRLF);
+            } else {
+                head.append("HTTP/1.1 200 OK").append(CRLF);
+            }
+            head.append("ETag: ").append(eTag).append(CRLF);
+            String acceptEncoding = headers.get("accept-encoding");
+            if (body.length > 0 && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                head.append("Content-Encoding: gzip").append(CRLF);
+            }
+        }
+        head.append("Content-Type: application/json; charset=utf-8").append(CRLF);
+        head.append("Content-Length: ").append(body.length).append(CRLF);
+        if (close) {
+            head.append("Connection: close").append(CRLF);
+        }
+        head.append(CRLF);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        response.write(head.toString().getBytes("US-ASCII"));
+        response.write(body);
+        out.write(response.toByteArray());
+        out.flush();
+        mBytesSent.addAndGet(response.size());
+    }
+
+    private void updateMaxInFlight(int inFlight) {
+        int max;
+        while ((max = mMaxInFlight.get()) < inFlight) {
+            if (mMaxInFlight.compareAndSet(max, inFlight)) {
+                return;
+            }
+        }
+    }
+
+    private void delay() throws IOException {
+        long latency = mLatency;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return the body of the path of the target, projected on the fields of its query
+     */
+    private byte[] project(String target) throws IOException {
+        int query = target.indexOf('?');
+        byte[] body = mResponses.get(target.substring(0, query));
+        int fields = target.indexOf(FIELDS, query);
+        if (body == null || fields < 0) {
+            return body;
+        }
+        byte[] projection = mProjections.get(target);
+        if (projection == null) {
+            int end = target.indexOf('&', fields);
+            String[] names = target
+                .substring(fields + FIELDS.length(), end < 0 ? target.length() : end)
+                .split(",");
+            try {
+                JSONArray objects = new JSONArray(new String(body, "UTF-8"));
+                JSONArray projected = new JSONArray();
+                for (int i = 0; i < objects.length(); ++i) {
+                    JSONObject object = objects.getJSONObject(i);
+                    JSONObject projectedObject = new JSONObject();
+                    for (String name : names) {
+                        if (object.has(name)) {
+                            projectedObject.put(name, object.get(name));
+                        }
+                    }
+                    projected.put(projectedObject);
+                }
+                projection = projected.toString().getBytes("UTF-8");
+            } catch (JSONException e) {
+                projection = body;
+            }
+            mProjections.put(target, projection);
+        }
+        return projection;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(compressed);
+        out.write(body);
+        out.close();
+        return compressed.toByteArray();
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                String name = line.substring(0, colon).trim().toLowerCase(Locale.US);
+                headers.put(name, line.substring(colon + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private static void skipBody(InputStream in, Map<String, String> headers)
+        throws IOException
+    {
+        String length = headers.get("content-length");
+        long remaining = length == null ? 0 : Long.parseLong(length);
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    return;
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                String result = line.toString("US-ASCII");
+                return result.endsWith("\r") ? result.substring(0, result.length() - 1) : result;
+            }
+            line.write(c);
+        }
+        return line.size() == 0 ? null : line.toString("US-ASCII");
+    }
+}
@@ -0,0 +1,66 @@
+package ch.epfl.sweng.swissaffinity.events;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import ch.epfl.sweng.swissaffinity.utilities.Location;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
+
+import static ch.epfl.sweng.swissaffinity.DataForTesting.createSpeedDatingEvent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventSummaryTest {
+
+    private SpeedDatingEvent event;
+    private EventSummary summary;
+
+    @Before
+    public void setUp() throws ParserException {
+        event = createSpeedDatingEvent();
+        summary = new EventSummary(event);
+    }
+
+    @Test
+    public void testGetters() {
+        assertEquals(event.getId(), summary.getId());
+        assertEquals(event.getName(), summary.getName());
+        assertEquals(event.getLocation(), summary.getLocation());
+        assertEquals(event.getDateBegin(), summary.getDateBegin());
+    }
+
+    @Test
+    public void testEquals() {
+        EventSummary other = new EventSummary(
+            event.getId(),
+            event.getName(),
+            event.getLocation(),
+            event.getDateBegin());
+        assertEquals(summary, other);
+        assertEquals(summary.hashCode(), other.hashCode());
+    }
+
+    @Test
+    public void testCompareTo() {
+        EventSummary later = new EventSummary(
+            2,
+            "Later",
+            new Location(3, "Lausanne"),
+            new Date(event.getDateBegin().getTime() + 1));
+        assertTrue(summary.compareTo(later) < 0);
+        assertTrue(later.compareTo(summary) > 0);
+        assertEquals(0, summary.compareTo(new EventSummary(event)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullName() {
+        new EventSummary(1, null, new Location(3, "Lausanne"), new Date());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullDate() {
+        new EventSummary(1, "Name", new Location(3, "Lausanne"), null);
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Set;
 import ch.epfl.sweng.swissaffinity.DataForTesting;
 import ch.epfl.sweng.swissaffinity.MainActivity;
 import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
 import ch.epfl.sweng.swissaffinity.users.Registration;
 import ch.epfl.sweng.swissaffinity.utilities.Location;
 import ch.epfl.sweng.swissaffinity.utilities.network.ServerTags;
@@ -146,6 +147,11 @@ public class DataManagerTest {
         DataManager.displayData(null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenImageCacheNull() throws Exception {
+        DataManager.openImageCache(null);
+    }
+
     @Ignore
     private class DummyEventClient implements EventClient {
         @Ignore
@@ -153,11 +159,40 @@ public class DataManagerTest {
             return new ArrayList<>();
         }
 
+        @Ignore
+        public List<Event> fetchAllIfModified() throws EventClientException {
+            return null;
+        }
+
+        @Ignore
+        public List<EventSummary> fetchSummaries() throws EventClientException {
+            return new ArrayList<>();
+        }
+
+        @Ignore
+        public List<EventSummary> fetchSummariesIfModified() throws EventClientException {
+            return null;
+        }
+
+        @Ignore
+        public List<EventSummary> fetchSummariesFor(Collection<Location> locations)
+            throws EventClientException
+        {
+            return new ArrayList<>();
+        }
+
         @Ignore
         public List<Registration> fetchForUser(String userName) throws EventClientException {
             return new ArrayList<>();
         }
 
+        @Ignore
+        public List<Registration> fetchForUserIfModified(String userName)
+            throws EventClientException
+        {
+            return null;
+        }
+
         @Ignore
         public List<Event> fetchAllFor(Collection<Location> locations) throws EventClientException {
             return new ArrayList<>();
@@ -172,5 +207,27 @@ public class DataManagerTest {
         public Bitmap imageFor(String imagePath) throws EventClientException {
             throw new EventClientException();
         }
+
+        @Ignore
+        public Bitmap imageFor(String imagePath, int width, int height)
+            throws EventClientException
+        {
+            throw new EventClientException();
+        }
+
+        @Ignore
+        public Bitmap logoFor(String logoPath, int width, int height)
+            throws EventClientException
+        {
+            throw new EventClientException();
+        }
+
+        @Ignore
+        public void retainImage(Bitmap image) {
+        }
+
+        @Ignore
+        public void releaseImage(Bitmap image) {
+        }
     }
 }
\ No newline at end of file
@@ -18,7 +18,7 @@ import java.util.List;
 
 import ch.epfl.sweng.swissaffinity.DataForTesting;
 import ch.epfl.sweng.swissaffinity.MainActivity;
-import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
 import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
 
@@ -35,7 +35,7 @@ public class EventExpandableListAdapterTest {
      */
 
     EventExpandableListAdapter adapter;
-    List<List<Event>> childrenTest;
+    List<List<EventSummary>> childrenTest;
     List<String> groupsTest;
     Context context;
     @Before
@@ -46,12 +46,12 @@ public class EventExpandableListAdapterTest {
 
         childrenTest = new ArrayList<>();
         try {
-            List<Event> events = new ArrayList<>();
-            events.add(DataForTesting.createSpeedDatingEvent());
-            events.add(DataForTesting.createSpeedDatingEvent());
+            List<EventSummary> events = new ArrayList<>();
+            events.add(new EventSummary(DataForTesting.createSpeedDatingEvent()));
+            events.add(new EventSummary(DataForTesting.createSpeedDatingEvent()));
             childrenTest.add(events);
-            events = new ArrayList<Event>();
-            events.add(DataForTesting.createSpeedDatingEvent());
+            events = new ArrayList<EventSummary>();
+            events.add(new EventSummary(DataForTesting.createSpeedDatingEvent()));
             childrenTest.add(events);
         } catch (ParserException e) {
             e.printStackTrace();
@@ -124,7 +124,7 @@ public class EventExpandableListAdapterTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void setDataGroupNull(){
-        List<List<Event>> children = new ArrayList<>();
+        List<List<EventSummary>> children = new ArrayList<>();
 
         adapter.setData(null, children);
     }
@@ -138,7 +138,7 @@ public class EventExpandableListAdapterTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void childrenNumIsNotEqualGroupNum(){
-        List<List<Event>> children = new ArrayList<>();
+        List<List<EventSummary>> children = new ArrayList<>();
         List<String> groups = new ArrayList<>();
         groups.add("group1");
 
@@ -0,0 +1,44 @@
+package ch.epfl.sweng.swissaffinity.gui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class IdCacheTest {
+
+    @Test
+    public void testEviction() {
+        IdCache<String> cache = new IdCache<>(2);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        assertEquals("a", cache.get(1));
+        cache.put(3, "c");
+        assertNull(cache.get(2));
+        assertEquals("a", cache.get(1));
+        assertEquals("c", cache.get(3));
+    }
+
+    @Test
+    public void testReplace() {
+        IdCache<String> cache = new IdCache<>(2);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(1, "c");
+        assertEquals("c", cache.get(1));
+        assertEquals("b", cache.get(2));
+    }
+
+    @Test
+    public void testEvictAll() {
+        IdCache<String> cache = new IdCache<>(2);
+        cache.put(1, "a");
+        cache.evictAll();
+        assertNull(cache.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalSize() {
+        new IdCache<String>(0);
+    }
+}
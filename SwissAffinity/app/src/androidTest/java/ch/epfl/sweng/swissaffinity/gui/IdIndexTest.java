@@ -0,0 +1,47 @@
+package ch.epfl.sweng.swissaffinity.gui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IdIndexTest {
+
+    @Test
+    public void testGet() {
+        IdIndex<String> index = new IdIndex<>(1000);
+        for (int id = 0; id < 1000; ++id) {
+            index.put(id * 7, Integer.toString(id));
+        }
+        assertEquals(1000, index.size());
+        for (int id = 0; id < 1000; ++id) {
+            assertEquals(Integer.toString(id), index.get(id * 7));
+            assertTrue(index.contains(id * 7));
+        }
+        assertNull(index.get(1));
+        assertFalse(index.contains(-7));
+    }
+
+    @Test
+    public void testReplace() {
+        IdIndex<String> index = new IdIndex<>(1);
+        index.put(4, "a");
+        index.put(4, "b");
+        assertEquals(1, index.size());
+        assertEquals("b", index.get(4));
+    }
+
+    @Test
+    public void testEmpty() {
+        IdIndex<String> index = new IdIndex<>(0);
+        assertNull(index.get(0));
+        assertEquals(0, index.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValue() {
+        new IdIndex<String>(1).put(1, null);
+    }
+}
@@ -0,0 +1,97 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BitmapPoolTest {
+
+    private static final Bitmap.Config CONFIG = Bitmap.Config.ARGB_8888;
+    private static final int SIDE = 100;
+    private static final int BITMAP_BYTES = SIDE * SIDE * 4;
+
+    private BitmapPool mPool;
+
+    @Before
+    public void setUp() {
+        mPool = new BitmapPool(2 * BITMAP_BYTES + BITMAP_BYTES / 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalSize() {
+        new BitmapPool(0);
+    }
+
+    @Test
+    public void testReuse() {
+        assertNull(mPool.get(SIDE, SIDE, CONFIG));
+        Bitmap bitmap = Bitmap.createBitmap(SIDE, SIDE, CONFIG);
+        mPool.put(bitmap);
+        assertEquals(BITMAP_BYTES, mPool.size());
+        assertSame(bitmap, mPool.get(SIDE / 2, SIDE, CONFIG));
+        assertEquals(0, mPool.size());
+        assertNull(mPool.get(SIDE, SIDE, CONFIG));
+        assertEquals(3, mPool.requestCount());
+        assertEquals(1, mPool.reuseCount());
+        assertEquals(BITMAP_BYTES / 2, mPool.reusedBytes());
+    }
+
+    @Test
+    public void testNoReuse() {
+        mPool.put(Bitmap.createBitmap(SIDE, SIDE, CONFIG));
+        assertNull(mPool.get(SIDE + 1, SIDE, CONFIG)); // too small
+        assertNull(mPool.get(SIDE / 4, SIDE / 4, CONFIG)); // much too large
+        assertNull(mPool.get(SIDE, SIDE, Bitmap.Config.RGB_565));
+        assertEquals(0, mPool.reuseCount());
+    }
+
+    @Test
+    public void testImmutable() {
+        mPool.put(Bitmap.createBitmap(SIDE, SIDE, CONFIG).copy(CONFIG, false));
+        assertEquals(0, mPool.size());
+    }
+
+    @Test
+    public void testRetained() {
+        Bitmap bitmap = Bitmap.createBitmap(SIDE, SIDE, CONFIG);
+        mPool.retain(bitmap);
+        mPool.retain(bitmap);
+        mPool.put(bitmap);
+        assertNull(mPool.get(SIDE, SIDE, CONFIG));
+        mPool.release(bitmap);
+        assertNull(mPool.get(SIDE, SIDE, CONFIG));
+        mPool.release(bitmap);
+        assertSame(bitmap, mPool.get(SIDE, SIDE, CONFIG));
+    }
+
+    @Test
+    public void testEviction() {
+        Bitmap oldest = Bitmap.createBitmap(SIDE, SIDE, CONFIG);
+        mPool.put(oldest);
+        mPool.put(Bitmap.createBitmap(SIDE, SIDE, CONFIG));
+        mPool.put(Bitmap.createBitmap(SIDE, SIDE, CONFIG));
+        assertTrue(oldest.isRecycled());
+        assertEquals(2 * BITMAP_BYTES, mPool.size());
+    }
+
+    @Test
+    public void testMemoryCache() {
+        ImageMemoryCache cache = new ImageMemoryCache(BITMAP_BYTES, mPool);
+        Bitmap evicted = Bitmap.createBitmap(SIDE, SIDE, CONFIG);
+        Bitmap displayed = Bitmap.createBitmap(SIDE, SIDE, CONFIG);
+        cache.put("a.jpg", evicted);
+        mPool.retain(displayed);
+        cache.put("b.jpg", displayed);
+        cache.put("c.jpg", Bitmap.createBitmap(SIDE, SIDE, CONFIG));
+        assertSame(evicted, mPool.get(SIDE, SIDE, CONFIG));
+        assertNull(mPool.get(SIDE, SIDE, CONFIG));
+        mPool.release(displayed);
+        assertSame(displayed, mPool.get(SIDE, SIDE, CONFIG));
+    }
+}
@@ -0,0 +1,94 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImageDecoderTest {
+
+    private static final int LARGE_WIDTH = 4000;
+    private static final int LARGE_HEIGHT = 3000;
+    private static final int REQ_WIDTH = 480;
+    private static final int REQ_HEIGHT = 256;
+    // a subsampled image is less than twice as large as requested in each dimension
+    private static final int HEAP_BUDGET = 4 * REQ_WIDTH * REQ_HEIGHT * 4;
+
+    private final ImageDecoder mDecoder = new ImageDecoder();
+
+    @Test
+    public void testSampleSize() {
+        assertEquals(1, ImageDecoder.sampleSizeFor(4000, 3000, 0, 0));
+        assertEquals(1, ImageDecoder.sampleSizeFor(400, 300, 480, 256));
+        assertEquals(1, ImageDecoder.sampleSizeFor(900, 600, 480, 256));
+        assertEquals(2, ImageDecoder.sampleSizeFor(960, 600, 480, 256));
+        assertEquals(2, ImageDecoder.sampleSizeFor(960, 600, 480, 0));
+        assertEquals(8, ImageDecoder.sampleSizeFor(4000, 3000, 480, 256));
+        assertEquals(8, ImageDecoder.sampleSizeFor(4000, 3000, 0, 256));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSampleSizeException() {
+        ImageDecoder.sampleSizeFor(4000, 3000, -1, 256);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeNull() throws IOException {
+        mDecoder.decode((byte[]) null, REQ_WIDTH, REQ_HEIGHT);
+    }
+
+    @Test
+    public void testDecodeMalformed() throws IOException {
+        byte[] data = "not an image".getBytes("UTF-8");
+        assertNull(mDecoder.decode(new ByteArrayInputStream(data), REQ_WIDTH, REQ_HEIGHT));
+    }
+
+    @Test
+    public void testDecodeLarge() throws IOException {
+        byte[] data = encode(LARGE_WIDTH, LARGE_HEIGHT);
+        Bitmap image = mDecoder.decode(new ByteArrayInputStream(data), REQ_WIDTH, REQ_HEIGHT);
+        assertNotNull(image);
+        assertEquals(LARGE_WIDTH / 8, image.getWidth());
+        assertEquals(LARGE_HEIGHT / 8, image.getHeight());
+        assertTrue(image.getByteCount() <= HEAP_BUDGET);
+    }
+
+    @Test
+    public void testDecodeFullSize() throws IOException {
+        byte[] data = encode(REQ_WIDTH, REQ_HEIGHT);
+        Bitmap image = mDecoder.decode(new ByteArrayInputStream(data), 0, 0);
+        assertNotNull(image);
+        assertEquals(REQ_WIDTH, image.getWidth());
+        assertEquals(REQ_HEIGHT, image.getHeight());
+    }
+
+    @Test
+    public void testDecodeReuse() throws IOException {
+        BitmapPool pool = new BitmapPool(HEAP_BUDGET);
+        ImageDecoder decoder = new ImageDecoder(pool);
+        byte[] data = encode(LARGE_WIDTH, LARGE_HEIGHT);
+        Bitmap first = decoder.decode(data, REQ_WIDTH, REQ_HEIGHT);
+        assertTrue(first.isMutable());
+        pool.put(first);
+        Bitmap second = decoder.decode(data, REQ_WIDTH, REQ_HEIGHT);
+        assertSame(first, second);
+        assertEquals(1, pool.reuseCount());
+    }
+
+    private static byte[] encode(int width, int height) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 50, data);
+        bitmap.recycle();
+        return data.toByteArray();
+    }
+}
@@ -0,0 +1,113 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class ImageDiskCacheTest {
+
+    private static final int IMAGE_BYTES = 1000;
+
+    private File mDirectory;
+    private ImageDiskCache mCache;
+
+    @Before
+    public void setUp() throws IOException {
+        mDirectory = File.createTempFile("images", "");
+        mDirectory.delete();
+        mCache = new ImageDiskCache(mDirectory, 2 * IMAGE_BYTES + IMAGE_BYTES / 2);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mCache.close();
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalSize() {
+        new ImageDiskCache(mDirectory, 0);
+    }
+
+    @Test
+    public void testPutGet() throws IOException {
+        byte[] image = image(1);
+        mCache.put("/images/events/a.jpg", image);
+        assertArrayEquals(image, mCache.get("/images/events/a.jpg"));
+        assertNull(mCache.get("/images/events/b.jpg"));
+        assertEquals(IMAGE_BYTES, mCache.size());
+        assertEquals(1, mCache.hitCount());
+        assertEquals(1, mCache.missCount());
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        mCache.put("a.jpg", image(1));
+        mCache.put("b.jpg", image(2));
+        mCache.get("a.jpg"); // b is now the least recently used
+        mCache.put("c.jpg", image(3));
+        assertNull(mCache.get("b.jpg"));
+        assertArrayEquals(image(1), mCache.get("a.jpg"));
+        assertArrayEquals(image(3), mCache.get("c.jpg"));
+        assertEquals(2 * IMAGE_BYTES, mCache.size());
+    }
+
+    @Test
+    public void testTooLarge() throws IOException {
+        mCache.put("a.jpg", new byte[3 * IMAGE_BYTES]);
+        assertNull(mCache.get("a.jpg"));
+        assertEquals(0, mCache.size());
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        mCache.put("a.jpg", image(1));
+        mCache.put("b.jpg", image(2));
+        mCache.get("a.jpg");
+        mCache.close();
+
+        mCache = new ImageDiskCache(mDirectory, 2 * IMAGE_BYTES + IMAGE_BYTES / 2);
+        assertEquals(2 * IMAGE_BYTES, mCache.size());
+        mCache.put("c.jpg", image(3)); // the order of use is kept by the journal
+        assertNull(mCache.get("b.jpg"));
+        assertArrayEquals(image(1), mCache.get("a.jpg"));
+    }
+
+    @Test
+    public void testPartialWrite() throws IOException {
+        mCache.put("a.jpg", image(1));
+        mCache.close();
+        File temporary = new File(mDirectory, "0123456789abcdef.tmp");
+        FileOutputStream out = new FileOutputStream(temporary);
+        out.write(image(2), 0, IMAGE_BYTES / 2);
+        out.close();
+
+        mCache = new ImageDiskCache(mDirectory, 2 * IMAGE_BYTES + IMAGE_BYTES / 2);
+        assertArrayEquals(image(1), mCache.get("a.jpg"));
+        assertEquals(IMAGE_BYTES, mCache.size());
+        assertFalse(temporary.exists());
+    }
+
+    private static byte[] image(int seed) {
+        byte[] data = new byte[IMAGE_BYTES];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (seed * i);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,309 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
+import ch.epfl.sweng.swissaffinity.users.Registration;
+import ch.epfl.sweng.swissaffinity.utilities.Location;
+import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClient;
+import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClientException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImageLoaderTest {
+
+    private static final String IMAGE_PATH = "/images/events/1.jpg";
+    private static final long TIMEOUT_MS = 2000;
+
+    private final Bitmap mImage = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    private final AtomicInteger mImageCount = new AtomicInteger();
+    private final AtomicInteger mLogoCount = new AtomicInteger();
+    private final AtomicInteger mRetainCount = new AtomicInteger();
+    private final AtomicInteger mReleaseCount = new AtomicInteger();
+    private CountDownLatch mFetching;
+    private CountDownLatch mUnblock;
+    private CountDownLatch mDone;
+    private ImageLoader mLoader;
+
+    @Before
+    public void setUp() {
+        mFetching = new CountDownLatch(1);
+        mUnblock = new CountDownLatch(1);
+        mDone = new CountDownLatch(1);
+        mLoader = new ImageLoader(
+            new FakeEventClient(), new Executor() {
+                @Override
+                public void execute(Runnable runnable) {
+                    runnable.run();
+                    mDone.countDown();
+                }
+            });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullClient() {
+        new ImageLoader(null, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPath() {
+        mLoader.load(null, 0, 0, new RecordingCallback());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullCallback() {
+        mLoader.load(IMAGE_PATH, 0, 0, null);
+    }
+
+    @Test
+    public void testCoalescing() throws InterruptedException {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        mLoader.load(IMAGE_PATH, 100, 50, first);
+        mLoader.load(IMAGE_PATH, 100, 50, second);
+        assertEquals(1, mLoader.getFetchCount());
+        mUnblock.countDown();
+        assertTrue(mDone.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(0, mLoader.getFetchCount());
+        assertSame(mImage, first.mImages.get(0));
+        assertSame(mImage, second.mImages.get(0));
+        // one download, retained once more for the second request
+        assertEquals(1, mImageCount.get());
+        assertEquals(1, mRetainCount.get());
+    }
+
+    @Test
+    public void testPartialCancel() throws InterruptedException {
+        RecordingCallback cancelled = new RecordingCallback();
+        RecordingCallback delivered = new RecordingCallback();
+        ImageLoader.Request request = mLoader.load(IMAGE_PATH, 100, 50, cancelled);
+        mLoader.load(IMAGE_PATH, 100, 50, delivered);
+        request.cancel();
+        assertTrue(request.isCancelled());
+        assertEquals(1, mLoader.getFetchCount());
+        mUnblock.countDown();
+        assertTrue(mDone.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(cancelled.mImages.isEmpty());
+        assertEquals(1, delivered.mImages.size());
+        assertEquals(0, mReleaseCount.get());
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        ImageLoader.Request firstRequest = mLoader.load(IMAGE_PATH, 100, 50, first);
+        ImageLoader.Request secondRequest = mLoader.load(IMAGE_PATH, 100, 50, second);
+        assertTrue(mFetching.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        firstRequest.cancel();
+        secondRequest.cancel();
+        assertEquals(0, mLoader.getFetchCount());
+        mUnblock.countDown();
+        assertTrue(first.mImages.isEmpty());
+        assertTrue(second.mImages.isEmpty());
+    }
+
+    @Test
+    public void testLoadLogo() throws InterruptedException {
+        RecordingCallback logo = new RecordingCallback();
+        mLoader.loadLogo(IMAGE_PATH, 48, 48, logo);
+        // an image at the same path and size is not the logo
+        ImageLoader.Request image = mLoader.load(IMAGE_PATH, 48, 48, new RecordingCallback());
+        assertEquals(2, mLoader.getFetchCount());
+        image.cancel();
+        mUnblock.countDown();
+        assertTrue(mDone.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertSame(mImage, logo.mImages.get(0));
+        assertEquals(1, mLogoCount.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullLogoPath() {
+        mLoader.loadLogo(null, 0, 0, new RecordingCallback());
+    }
+
+    @Test
+    public void testShutdown() throws InterruptedException {
+        RecordingCallback pending = new RecordingCallback();
+        mLoader.load(IMAGE_PATH, 100, 50, pending);
+        mLoader.shutdown();
+        // the fetch in progress is still delivered
+        mUnblock.countDown();
+        assertTrue(mDone.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertSame(mImage, pending.mImages.get(0));
+        mLoader.release(mImage);
+        assertEquals(1, mReleaseCount.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLoadAfterShutdown() {
+        mLoader.shutdown();
+        mLoader.load(IMAGE_PATH, 100, 50, new RecordingCallback());
+    }
+
+    @Test
+    public void testRelease() {
+        mLoader.release(mImage);
+        assertEquals(1, mReleaseCount.get());
+    }
+
+    @Test
+    public void testDeliveryAfterDestroy() throws InterruptedException {
+        OwnedCallback destroyed = new OwnedCallback();
+        OwnedCallback shown = new OwnedCallback();
+        mLoader.load(IMAGE_PATH, 100, 50, destroyed);
+        mLoader.load(IMAGE_PATH, 100, 50, shown);
+        // the owner is destroyed while the delivery is queued, before its request is cancelled
+        destroyed.mDestroyed = true;
+        mUnblock.countDown();
+        assertTrue(mDone.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertNull(destroyed.mImage);
+        assertSame(mImage, shown.mImage);
+        // the retain of the destroyed owner is given back, the displayed one is kept
+        assertEquals(1, mRetainCount.get());
+        assertEquals(1, mReleaseCount.get());
+    }
+
+    @Test
+    public void testDifferentSizes() {
+        mLoader.load(IMAGE_PATH, 100, 50, new RecordingCallback());
+        mLoader.load(IMAGE_PATH, 200, 100, new RecordingCallback());
+        assertEquals(2, mLoader.getFetchCount());
+        mUnblock.countDown();
+    }
+
+    private static final class RecordingCallback implements ImageLoader.Callback {
+
+        private final List<Bitmap> mImages = new ArrayList<>();
+
+        @Override
+        public void onImage(Bitmap image) {
+            mImages.add(image);
+        }
+    }
+
+    /**
+     * Callback keeping the image for its owner, like EventActivity does.
+     */
+    private final class OwnedCallback implements ImageLoader.Callback {
+
+        private volatile boolean mDestroyed;
+        private Bitmap mImage;
+
+        @Override
+        public void onImage(Bitmap image) {
+            if (mDestroyed) {
+                if (image != null) {
+                    mLoader.release(image);
+                }
+                return;
+            }
+            mImage = image;
+        }
+    }
+
+    private final class FakeEventClient implements EventClient {
+
+        @Override
+        public Bitmap imageFor(String imagePath, int width, int height)
+            throws EventClientException
+        {
+            mImageCount.incrementAndGet();
+            mFetching.countDown();
+            try {
+                mUnblock.await();
+            } catch (InterruptedException e) {
+                throw new EventClientException(e);
+            }
+            return mImage;
+        }
+
+        @Override
+        public void retainImage(Bitmap image) {
+            mRetainCount.incrementAndGet();
+        }
+
+        @Override
+        public void releaseImage(Bitmap image) {
+            mReleaseCount.incrementAndGet();
+        }
+
+        @Override
+        public Bitmap imageFor(String imagePath) throws EventClientException {
+            return imageFor(imagePath, 0, 0);
+        }
+
+        @Override
+        public Bitmap logoFor(String logoPath, int width, int height)
+            throws EventClientException
+        {
+            mLogoCount.incrementAndGet();
+            try {
+                mUnblock.await();
+            } catch (InterruptedException e) {
+                throw new EventClientException(e);
+            }
+            return mImage;
+        }
+
+        @Override
+        public List<Event> fetchAll() {
+            return null;
+        }
+
+        @Override
+        public List<Event> fetchAllIfModified() {
+            return null;
+        }
+
+        @Override
+        public List<EventSummary> fetchSummaries() {
+            return null;
+        }
+
+        @Override
+        public List<EventSummary> fetchSummariesIfModified() {
+            return null;
+        }
+
+        @Override
+        public List<Registration> fetchForUser(String userName) {
+            return null;
+        }
+
+        @Override
+        public List<Registration> fetchForUserIfModified(String userName) {
+            return null;
+        }
+
+        @Override
+        public List<Event> fetchAllFor(Collection<Location> locations) {
+            return null;
+        }
+
+        @Override
+        public List<EventSummary> fetchSummariesFor(Collection<Location> locations) {
+            return null;
+        }
+
+        @Override
+        public Event fetchBy(int id) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImageMemoryCacheTest {
+
+    private static final int SIDE = 100;
+    private static final int IMAGE_BYTES = SIDE * SIDE * 4;
+
+    private ImageMemoryCache mCache;
+
+    @Before
+    public void setUp() {
+        mCache = new ImageMemoryCache(2 * IMAGE_BYTES + IMAGE_BYTES / 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalSize() {
+        new ImageMemoryCache(0);
+    }
+
+    @Test
+    public void testDefaultSize() {
+        long maxMemory = Runtime.getRuntime().maxMemory();
+        assertTrue(new ImageMemoryCache().maxSize() <= maxMemory / ImageMemoryCache.HEAP_FRACTION);
+    }
+
+    @Test
+    public void testSizeInBytes() {
+        mCache.put("a.jpg", createImage());
+        assertEquals(IMAGE_BYTES, mCache.size());
+    }
+
+    @Test
+    public void testSizeOfReusedBitmap() {
+        Bitmap image = createImage();
+        image.reconfigure(SIDE / 2, SIDE / 2, Bitmap.Config.ARGB_8888);
+        mCache.put("a.jpg", image);
+        assertEquals(IMAGE_BYTES, mCache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        Bitmap a = createImage();
+        Bitmap b = createImage();
+        mCache.put("a.jpg", a);
+        mCache.put("b.jpg", b);
+        assertSame(a, mCache.get("a.jpg")); // b is now the least recently used
+        mCache.put("c.jpg", createImage());
+        assertNull(mCache.get("b.jpg"));
+        assertSame(a, mCache.get("a.jpg"));
+        assertEquals(2, mCache.hitCount());
+        assertEquals(1, mCache.missCount());
+        assertEquals(1, mCache.evictionCount());
+        assertEquals(2 * IMAGE_BYTES, mCache.size());
+    }
+
+    private static Bitmap createImage() {
+        return Bitmap.createBitmap(SIDE, SIDE, Bitmap.Config.ARGB_8888);
+    }
+}
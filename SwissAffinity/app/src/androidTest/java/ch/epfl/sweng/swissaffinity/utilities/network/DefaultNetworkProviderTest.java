@@ -9,6 +9,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -17,11 +18,13 @@ import java.util.Collection;
 import java.util.List;
 
 import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.benchmarks.StubHttpServer;
 import ch.epfl.sweng.swissaffinity.events.Event;
 import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
 import ch.epfl.sweng.swissaffinity.utilities.Location;
 import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClientException;
 import ch.epfl.sweng.swissaffinity.utilities.network.events.NetworkEventClient;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.JSONTreeReader;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.Parser;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserFactory;
@@ -29,6 +32,9 @@ import ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.events.SpeedDatingEventParser;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -59,10 +65,77 @@ public class DefaultNetworkProviderTest {
         defaultNetworkProvider.postContent(NetworkProvider.SERVER_URL, null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testConfigureConnectionPoolNegative() {
+        DefaultNetworkProvider.configureConnectionPool(-1, 0);
+    }
+
     @Test(expected = IOException.class)
     public void testDeleteContentWithWrongURL() throws IOException {
         defaultNetworkProvider.deleteContent(wrongURL);
     }
 
+    @Test
+    public void testGetContentIfModified() throws IOException {
+        StubHttpServer server = new StubHttpServer();
+        try {
+            String url = server.getUrl() + "/api/events";
+            server.setResponse("/api/events", DataForTesting.eventsLausanneJSONcontent);
+            assertNotNull(defaultNetworkProvider.getContentIfModified(url));
+            assertNull(defaultNetworkProvider.getContentIfModified(url));
+            assertNotNull(defaultNetworkProvider.getContent(url));
+
+            server.setResponse("/api/events", DataForTesting.allEventsJSONcontent);
+            String content = defaultNetworkProvider.getContentIfModified(url);
+            assertEquals(DataForTesting.allEventsJSONcontent, content.trim());
+            assertNull(defaultNetworkProvider.getContentIfModified(url));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetCompressedContent() throws IOException {
+        StubHttpServer server = new StubHttpServer();
+        try {
+            String url = server.getUrl() + "/api/events";
+            server.setResponse("/api/events", DataForTesting.allEventsJSONcontent);
+            String content = defaultNetworkProvider.getContent(url);
+            assertEquals(DataForTesting.allEventsJSONcontent, content.trim());
 
+            TransferStatistics statistics = defaultNetworkProvider.getTransferStatistics();
+            assertTrue(statistics.getWireBytes(url) > 0);
+            assertTrue(statistics.getWireBytes(url) < statistics.getDecodedBytes(url));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testOpenContent() throws IOException, JSONException {
+        StubHttpServer server = new StubHttpServer();
+        try {
+            String url = server.getUrl() + "/api/events";
+            server.setResponse("/api/events", DataForTesting.allEventsJSONcontent);
+
+            Reader reader = defaultNetworkProvider.openContent(url);
+            reader.close();
+            reader = defaultNetworkProvider.openContentIfModified(url);
+            assertNotNull(reader);
+            reader.close();
+
+            reader = defaultNetworkProvider.openContent(url);
+            try {
+                JSONArray events = JSONTreeReader.readArray(reader);
+                JSONArray expected = new JSONArray(DataForTesting.allEventsJSONcontent);
+                assertEquals(expected.length(), events.length());
+            } finally {
+                reader.close();
+            }
+            assertNull(defaultNetworkProvider.openContentIfModified(url));
+            assertEquals(1, server.getConnectionCount());
+        } finally {
+            server.shutdown();
+        }
+    }
 }
@@ -6,6 +6,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -13,6 +14,7 @@ import java.util.List;
 
 import ch.epfl.sweng.swissaffinity.DataForTesting;
 import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
 import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
 import ch.epfl.sweng.swissaffinity.utilities.Location;
 import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClientException;
@@ -24,9 +26,11 @@ import ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.events.SpeedDatingEventParser;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -112,7 +116,8 @@ public class NetworkEventClientTest {
 
     @Test
     public void testFetchAll() throws EventClientException, IOException {
-        when(mockNetworkProvider.getContent(anyString())).thenReturn(allEvents);
+        when(mockNetworkProvider.openContent(anyString()))
+            .thenReturn(new StringReader(allEvents));
         eventList = networkEventClient.fetchAll();
 
         for (int i = 0; i < eventList.size(); i++) {
@@ -136,7 +141,8 @@ public class NetworkEventClientTest {
 
     @Test
     public void testFetchAllFor() throws EventClientException, IOException {
-        when(mockNetworkProvider.getContent(anyString())).thenReturn(eventsByLocation);
+        when(mockNetworkProvider.openContent(anyString()))
+            .thenReturn(new StringReader(eventsByLocation));
         eventList = networkEventClient.fetchAllFor(testLocations);
 
         for (int i = 0; i < eventList.size(); i++) {
@@ -166,6 +172,69 @@ public class NetworkEventClientTest {
         }
     }
 
+    @Test
+    public void testFetchAllForDuplicates() throws EventClientException, IOException {
+        when(mockNetworkProvider.openContent(anyString()))
+            .thenReturn(new StringReader(allEvents), new StringReader(allEvents));
+        eventList = networkEventClient.fetchAllFor(DataForTesting.LOCATIONS.subList(0, 2));
+        assertEquals(testAllEventList.size(), eventList.size());
+        for (int i = 0; i < eventList.size(); i++) {
+            assertEquals(testAllEventList.get(i).getId(), eventList.get(i).getId());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetMaxInFlight() {
+        networkEventClient.setMaxInFlight(0);
+    }
+
+    @Test
+    public void testFetchAllIfModified() throws EventClientException, IOException {
+        when(mockNetworkProvider.openContentIfModified(anyString()))
+            .thenReturn(new StringReader(allEvents));
+        eventList = networkEventClient.fetchAllIfModified();
+        assertEquals(testAllEventList.size(), eventList.size());
+        for (int i = 0; i < eventList.size(); i++) {
+            assertEquals(testAllEventList.get(i).getId(), eventList.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testFetchAllNotModified() throws EventClientException, IOException {
+        when(mockNetworkProvider.openContentIfModified(anyString())).thenReturn(null);
+        assertNull(networkEventClient.fetchAllIfModified());
+    }
+
+    @Test
+    public void testFetchSummaries() throws EventClientException, IOException {
+        when(mockNetworkProvider.openContent(anyString()))
+            .thenReturn(new StringReader(allEvents));
+        List<EventSummary> summaries = networkEventClient.fetchSummaries();
+        verify(mockNetworkProvider)
+            .openContent(mockServerURL + "/api/events?fields=id,name,location,date_start");
+        assertEquals(testAllEventList.size(), summaries.size());
+        for (int i = 0; i < summaries.size(); i++) {
+            assertEquals(new EventSummary(testAllEventList.get(i)), summaries.get(i));
+        }
+    }
+
+    @Test
+    public void testFetchSummariesNotModified() throws EventClientException, IOException {
+        when(mockNetworkProvider.openContentIfModified(anyString())).thenReturn(null);
+        assertNull(networkEventClient.fetchSummariesIfModified());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFetchSummariesForException() throws EventClientException {
+        networkEventClient.fetchSummariesFor(null);
+    }
+
+    @Test
+    public void testFetchForUserNotModified() throws EventClientException, IOException {
+        when(mockNetworkProvider.openContentIfModified(anyString())).thenReturn(null);
+        assertNull(networkEventClient.fetchForUserIfModified("lio"));
+    }
+
     @Test
     public void testFetchForUser() throws EventClientException {
         networkEventClient.fetchForUser("lio");
@@ -205,6 +274,27 @@ public class NetworkEventClientTest {
         networkEventClient.imageFor(null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testImageForNegativeSize() throws EventClientException {
+        networkEventClient.imageFor(testAllEventList.get(0).getImagePath(), -1, 128);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLogoForNull() throws EventClientException {
+        networkEventClient.logoFor(null, 128, 128);
+    }
+
+    @Test(expected = EventClientException.class)
+    public void testLogoForException() throws IOException, EventClientException {
+        when(mockNetworkProvider.getConnection(anyString())).thenThrow(IOException.class);
+        networkEventClient.logoFor(testOneEvent.getEstablishment().getLogoPath(), 128, 128);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRetainImageNull() {
+        networkEventClient.retainImage(null);
+    }
+
     @Test
     public void testImageFor() throws EventClientException {
         networkEventClient.imageFor(testAllEventList.get(0).getImagePath());
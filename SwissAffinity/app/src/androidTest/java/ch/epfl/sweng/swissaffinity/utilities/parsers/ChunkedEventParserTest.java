@@ -0,0 +1,102 @@
+package ch.epfl.sweng.swissaffinity.utilities.parsers;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.Event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChunkedEventParserTest {
+
+    private static final int EVENTS = 40;
+    private static final String UNKNOWN_TYPE = "Unknown parser type.";
+
+    private ChunkedEventParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new ChunkedEventParser(4, 4);
+    }
+
+    @After
+    public void tearDown() {
+        parser.shutdown();
+    }
+
+    @Test
+    public void testOrderPreserved() throws JSONException, ParserException {
+        List<Event> events = parser.parse(createEvents());
+        assertEquals(EVENTS, events.size());
+        for (int i = 0; i < EVENTS; ++i) {
+            assertEquals(i, events.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testSmallArray() throws JSONException, ParserException {
+        JSONArray jsonEvents = new JSONArray(DataForTesting.allEventsJSONcontent);
+        ChunkedEventParser smallParser = new ChunkedEventParser(2, 100);
+        try {
+            List<Event> events = smallParser.parse(jsonEvents);
+            assertEquals(jsonEvents.length(), events.size());
+            assertEquals(6, events.get(0).getId());
+        } finally {
+            smallParser.shutdown();
+        }
+    }
+
+    @Test
+    public void testFirstExceptionThrown() throws JSONException {
+        JSONArray jsonEvents = createEvents();
+        jsonEvents.getJSONObject(5).remove("base_price");
+        jsonEvents.getJSONObject(30).put("discr", "unknown");
+        try {
+            parser.parse(jsonEvents);
+            fail();
+        } catch (ParserException e) {
+            assertTrue(e.getCause() instanceof JSONException);
+        }
+
+        jsonEvents = createEvents();
+        jsonEvents.getJSONObject(5).put("discr", "unknown");
+        jsonEvents.getJSONObject(30).remove("base_price");
+        try {
+            parser.parse(jsonEvents);
+            fail();
+        } catch (ParserException e) {
+            assertNull(e.getCause());
+            assertEquals(UNKNOWN_TYPE, e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoThread() {
+        new ChunkedEventParser(0, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullArray() throws JSONException, ParserException {
+        parser.parse(null);
+    }
+
+    private static JSONArray createEvents() throws JSONException {
+        JSONArray jsonEvents = new JSONArray();
+        for (int i = 0; i < EVENTS; ++i) {
+            JSONObject jsonEvent = new JSONObject(DataForTesting.event4JSONcontent);
+            jsonEvent.put("id", i);
+            jsonEvents.put(jsonEvent);
+        }
+        return jsonEvents;
+    }
+}
@@ -3,7 +3,13 @@ package ch.epfl.sweng.swissaffinity.utilities.parsers;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by sahinfurkan on 18/11/15.
@@ -26,6 +32,80 @@ public class DateParserTest {
             DateParser.parseFromString("2014-06-09A10:11:12+0100", DateParser.SERVER_DATE_FORMAT);
     }
 
+    @Test(expected = ParserException.class)
+    public void serverDateTimeExceptionTest() throws ParserException {
+        DateParser.parseFromString("2015-11-19T2x:00:00+0100", DateParser.SERVER_DATE_FORMAT);
+    }
+
+    @Test
+    public void serverDateTest() throws Exception {
+        SimpleDateFormat format =
+            new SimpleDateFormat(DateParser.SERVER_DATE_FORMAT, Locale.getDefault());
+        String[] dates = {
+            "2014-06-09T10:11:12+0100",
+            "2015-11-19T20:00:00-0530",
+            "2016-02-29T23:59:59+0000",
+            "1970-01-01T00:00:00+1400",
+            "2015-13-40T25:00:00+0100", // lenient, through the general path
+            "2015-11-19T20:00:00GMT+01:00" // general time zone
+        };
+        for (String date : dates) {
+            assertEquals(date, format.parse(date), DateParser.parseFromString(
+                date, DateParser.SERVER_DATE_FORMAT));
+        }
+        assertEquals(1402305072000L, testDate.getTime());
+    }
+
+    @Test
+    public void facebookDateTest() throws Exception {
+        SimpleDateFormat format =
+            new SimpleDateFormat(DateParser.FACEBOOK_DATE_FORMAT, Locale.getDefault());
+        String[] dates = {"12/31/2015", "02/29/2016", "01/01/1970", "13/45/2015", "1/2/2015"};
+        for (String date : dates) {
+            assertEquals(date, format.parse(date), DateParser.parseFromString(
+                date, DateParser.FACEBOOK_DATE_FORMAT));
+        }
+    }
+
+    @Test(expected = ParserException.class)
+    public void facebookDateExceptionTest() throws ParserException {
+        DateParser.parseFromString("2015-12-31", DateParser.FACEBOOK_DATE_FORMAT);
+    }
+
+    @Test
+    public void dateToStringTest() {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.ENGLISH);
+            String english = DateParser.dateToString(testDate);
+            assertEquals(english, DateParser.dateToString(new Date(testDate.getTime())));
+            assertTrue(english.contains("June"));
+            Locale.setDefault(Locale.FRENCH);
+            assertTrue(DateParser.dateToString(testDate).contains("juin"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void dateToStringTimeZoneTest() {
+        TimeZone timeZone = TimeZone.getDefault();
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.ENGLISH);
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+            DateParser.onTimeZoneChanged();
+            assertTrue(DateParser.dateToString(testDate).endsWith("09:11"));
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT+02:00"));
+            DateParser.onTimeZoneChanged();
+            assertTrue(DateParser.dateToString(testDate).endsWith("11:11"));
+        } finally {
+            TimeZone.setDefault(timeZone);
+            Locale.setDefault(locale);
+            DateParser.onTimeZoneChanged();
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void dateNullTest() {
         DateParser.dateToString(null);
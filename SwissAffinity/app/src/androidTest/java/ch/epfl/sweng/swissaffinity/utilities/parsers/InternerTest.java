@@ -0,0 +1,147 @@
+package ch.epfl.sweng.swissaffinity.utilities.parsers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
+import ch.epfl.sweng.swissaffinity.utilities.Location;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.events.EventStreamDecoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InternerTest {
+
+    private Interner<Location> interner;
+
+    @Before
+    public void setUp() {
+        interner = new Interner<>();
+        Interner.LOCATIONS.clear();
+        Interner.ESTABLISHMENTS.clear();
+    }
+
+    @After
+    public void tearDown() {
+        Interner.LOCATIONS.setEnabled(true);
+        Interner.ESTABLISHMENTS.setEnabled(true);
+    }
+
+    @Test
+    public void testIntern() {
+        Location lausanne = new Location(3, "Lausanne");
+        assertSame(lausanne, interner.intern(3, lausanne));
+        assertSame(lausanne, interner.intern(3, new Location(3, "Lausanne")));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    public void testChangedInstance() {
+        Location lausanne = new Location(3, "Lausanne");
+        Location renamed = new Location(3, "Lausanne VD");
+        interner.intern(3, lausanne);
+        assertSame(renamed, interner.intern(3, renamed));
+        assertSame(renamed, interner.intern(3, new Location(3, "Lausanne VD")));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    public void testDisabled() {
+        interner.setEnabled(false);
+        Location lausanne = new Location(3, "Lausanne");
+        interner.intern(3, lausanne);
+        Location other = new Location(3, "Lausanne");
+        assertSame(other, interner.intern(3, other));
+        assertEquals(0, interner.size());
+    }
+
+    @Test
+    public void testMaxSize() {
+        interner = new Interner<>(2);
+        interner.intern(1, new Location(1, "Geneva"));
+        interner.intern(2, new Location(2, "Bern"));
+        Location lausanne = new Location(3, "Lausanne");
+        assertSame(lausanne, interner.intern(3, lausanne));
+        assertNotSame(lausanne, interner.intern(3, new Location(3, "Lausanne")));
+        assertEquals(2, interner.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxSizeZero() {
+        new Interner<Location>(0);
+    }
+
+    @Test
+    public void testClearAll() throws IOException, ParserException {
+        new EventStreamDecoder().decodeEvents(
+            new StringReader(DataForTesting.allEventsJSONcontent), new ArrayList<Event>());
+        assertTrue(Interner.LOCATIONS.size() > 0);
+        assertTrue(Interner.ESTABLISHMENTS.size() > 0);
+        Interner.clearAll();
+        assertEquals(0, Interner.LOCATIONS.size());
+        assertEquals(0, Interner.ESTABLISHMENTS.size());
+    }
+
+    @Test
+    public void testConcurrentIntern() throws InterruptedException {
+        final Location[] interned = new Location[8];
+        Thread[] threads = new Thread[interned.length];
+        for (int i = 0; i < threads.length; ++i) {
+            final int index = i;
+            threads[i] = new Thread(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        interned[index] = interner.intern(3, new Location(3, "Lausanne"));
+                    }
+                });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Location location : interned) {
+            assertSame(interned[0], location);
+        }
+        assertEquals(1, interner.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInternNull() {
+        interner.intern(3, null);
+    }
+
+    @Test
+    public void testSharedVenues() throws IOException, ParserException {
+        List<Event> events = new ArrayList<>();
+        new EventStreamDecoder().decodeEvents(
+            new StringReader(DataForTesting.allEventsJSONcontent), events);
+        SpeedDatingEvent first = (SpeedDatingEvent) events.get(1);
+        SpeedDatingEvent second = (SpeedDatingEvent) events.get(4);
+        assertEquals(7, first.getId());
+        assertEquals(4, second.getId());
+        assertSame(first.getLocation(), second.getLocation());
+        assertSame(first.getEstablishment(), second.getEstablishment());
+
+        Interner.LOCATIONS.setEnabled(false);
+        Interner.ESTABLISHMENTS.setEnabled(false);
+        events.clear();
+        new EventStreamDecoder().decodeEvents(
+            new StringReader(DataForTesting.allEventsJSONcontent), events);
+        first = (SpeedDatingEvent) events.get(1);
+        second = (SpeedDatingEvent) events.get(4);
+        assertEquals(first.getLocation(), second.getLocation());
+        assertNotSame(first.getLocation(), second.getLocation());
+        assertNotSame(first.getEstablishment(), second.getEstablishment());
+    }
+}
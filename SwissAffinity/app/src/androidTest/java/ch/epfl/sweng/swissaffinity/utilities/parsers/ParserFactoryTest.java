@@ -1,10 +1,18 @@
 package ch.epfl.sweng.swissaffinity.utilities.parsers;
 
 import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
 import org.junit.Test;
 
 import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
+import ch.epfl.sweng.swissaffinity.utilities.network.ServerTags;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.events.SpeedDatingEventParser;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -12,6 +20,11 @@ import static org.junit.Assert.fail;
  */
 public class ParserFactoryTest {
 
+    @After
+    public void tearDown() {
+        ParserFactory.unregister("test_dating");
+    }
+
     @Test(expected = ParserException.class)
     public void testParserUnknownEventType() throws ParserException {
         ParserFactory.parserFor(new SafeJSONObject());
@@ -25,4 +38,32 @@ public class ParserFactoryTest {
             fail(e.getMessage());
         }
     }
+
+    @Test
+    public void testSharedParser() throws ParserException, JSONException {
+        SafeJSONObject jsonEvent = new SafeJSONObject(DataForTesting.createJSONEvent());
+        assertSame(ParserFactory.parserFor(jsonEvent), ParserFactory.parserFor(jsonEvent));
+    }
+
+    @Test
+    public void testRegisterEventType() throws ParserException, JSONException {
+        Parser<SpeedDatingEvent> parser = new SpeedDatingEventParser();
+        ParserFactory.register("test_dating", parser);
+        JSONObject jsonEvent = new JSONObject().put(ServerTags.EVENT_TYPE.get(), "test_dating");
+        assertSame(parser, ParserFactory.parserFor(new SafeJSONObject(jsonEvent)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterNull() {
+        ParserFactory.register(null, new SpeedDatingEventParser());
+    }
+
+    @Test
+    public void testCustomParsers() {
+        assertFalse(ParserFactory.hasCustomParsers());
+        ParserFactory.register("test_dating", new SpeedDatingEventParser());
+        assertTrue(ParserFactory.hasCustomParsers());
+        ParserFactory.unregister("test_dating");
+        assertFalse(ParserFactory.hasCustomParsers());
+    }
 }
@@ -38,4 +38,42 @@ public class SafeJSONObjectTest {
         jsonFromJson.get("him", null);
     }
 
+    @Test
+    public void viewTest() throws JSONException {
+        json.put("me", "him");
+        assertEquals("him", jsonFromJson.get("me", ""));
+        assertEquals("", jsonFromString.get("me", ""));
+    }
+
+    @Test
+    public void numberConversionTest() throws JSONException {
+        JSONObject numbers = new JSONObject();
+        numbers.put("integer", 30);
+        numbers.put("double", 30.0);
+        numbers.put("fraction", 49.5);
+        numbers.put("long", 5000000000L);
+        SafeJSONObject safeNumbers = new SafeJSONObject(numbers);
+        assertEquals(30, (int) safeNumbers.get("double", 0));
+        assertEquals(30.0, safeNumbers.get("integer", 0.0), 0.0);
+        assertEquals(30L, (long) safeNumbers.get("integer", 0L));
+        assertEquals(0, (int) safeNumbers.get("fraction", 0));
+        assertEquals(0, (int) safeNumbers.get("long", 0));
+        assertEquals(5000000000L, (long) safeNumbers.get("long", 0L));
+    }
+
+    @Test
+    public void fieldStatisticsTest() {
+        FieldStatistics statistics = SafeJSONObject.getFieldStatistics();
+        statistics.reset();
+        jsonFromJson.get("nowhere", "");
+        jsonFromJson.get("nowhere", 0);
+        jsonFromJson.get("name", 0);
+        assertEquals(2, statistics.getMissingCount("nowhere"));
+        assertEquals(0, statistics.getMismatchCount("nowhere"));
+        assertEquals(1, statistics.getMismatchCount("name"));
+        assertTrue(statistics.toString().contains("nowhere"));
+        statistics.reset();
+        assertEquals(0, statistics.getMissingCount("nowhere"));
+    }
+
 }
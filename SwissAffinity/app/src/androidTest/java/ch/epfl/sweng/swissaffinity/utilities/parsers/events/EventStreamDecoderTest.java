@@ -0,0 +1,147 @@
+package ch.epfl.sweng.swissaffinity.utilities.parsers.events;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.epfl.sweng.swissaffinity.DataForTesting;
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
+import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
+import ch.epfl.sweng.swissaffinity.users.Registration;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.Parser;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserFactory;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventStreamDecoderTest {
+
+    private EventStreamDecoder decoder;
+    private List<Event> parsedEvents;
+
+    @Before
+    public void setUp() throws JSONException, ParserException {
+        decoder = new EventStreamDecoder();
+        parsedEvents = new ArrayList<>();
+        JSONArray jsonEvents = new JSONArray(DataForTesting.allEventsJSONcontent);
+        for (int i = 0; i < jsonEvents.length(); ++i) {
+            SafeJSONObject jsonObject = new SafeJSONObject(jsonEvents.getJSONObject(i));
+            parsedEvents.add(new SpeedDatingEventParser().parse(jsonObject));
+        }
+    }
+
+    @Test
+    public void testDecodeEvents() throws IOException, ParserException {
+        List<Event> events = new ArrayList<>();
+        decoder.decodeEvents(new StringReader(DataForTesting.allEventsJSONcontent), events);
+        assertEquals(parsedEvents.size(), events.size());
+        for (int i = 0; i < events.size(); ++i) {
+            assertSameEvent(parsedEvents.get(i), events.get(i));
+        }
+    }
+
+    @Test
+    public void testDecodeRegisteredEventType() throws IOException, ParserException {
+        final int[] parsed = {0};
+        ParserFactory.register(
+            "test_dating", new Parser<SpeedDatingEvent>() {
+                @Override
+                public SpeedDatingEvent parse(SafeJSONObject jsonObject) throws ParserException {
+                    ++parsed[0];
+                    return new SpeedDatingEventParser().parse(jsonObject);
+                }
+            });
+        try {
+            String custom = DataForTesting.event4JSONcontent.replace(
+                "\"discr\":\"speed_dating\"",
+                "\"discr\":\"test_dating\"");
+            String content = "[" + custom + "," + DataForTesting.event4JSONcontent + "]";
+            List<Event> events = new ArrayList<>();
+            decoder.decodeEvents(new StringReader(content), events);
+            assertEquals(2, events.size());
+            assertEquals(1, parsed[0]);
+            assertSameEvent(events.get(1), events.get(0));
+        } finally {
+            ParserFactory.unregister("test_dating");
+        }
+    }
+
+    @Test
+    public void testDecodeRegistrations() throws IOException, ParserException {
+        String content = "[{\"id\":7,\"event\":" + DataForTesting.event4JSONcontent + "}]";
+        List<Registration> registrations = new ArrayList<>();
+        decoder.decodeRegistrations(new StringReader(content), registrations);
+        assertEquals(1, registrations.size());
+        assertEquals(7, registrations.get(0).getId());
+        assertEquals(4, registrations.get(0).getEvent().getId());
+    }
+
+    @Test
+    public void testDecodeSummaries() throws IOException, ParserException {
+        List<EventSummary> summaries = new ArrayList<>();
+        decoder.decodeSummaries(new StringReader(DataForTesting.allEventsJSONcontent), summaries);
+        assertEquals(parsedEvents.size(), summaries.size());
+        for (int i = 0; i < summaries.size(); ++i) {
+            assertEquals(new EventSummary(parsedEvents.get(i)), summaries.get(i));
+        }
+
+        String projected = "[{\"id\":4,\"name\":\"First Speed Dating Event !\","
+                           + "\"location\":{\"id\":3,\"name\":\"Lausanne\"},"
+                           + "\"date_start\":\"2015-11-19T20:00:00+0100\"}]";
+        summaries.clear();
+        decoder.decodeSummaries(new StringReader(projected), summaries);
+        assertEquals(1, summaries.size());
+        assertEquals(new EventSummary(parsedEvents.get(4)), summaries.get(0));
+    }
+
+    @Test(expected = ParserException.class)
+    public void testMissingSummaryAttributes() throws IOException, ParserException {
+        decoder.decodeSummaries(
+            new StringReader("[{\"id\":4,\"name\":\"Event\"}]"),
+            new ArrayList<EventSummary>());
+    }
+
+    @Test(expected = ParserException.class)
+    public void testMissingAttributes() throws IOException, ParserException {
+        decoder.decodeEvents(new StringReader("[{\"id\":4}]"), new ArrayList<Event>());
+    }
+
+    @Test(expected = ParserException.class)
+    public void testUnknownType() throws IOException, ParserException {
+        String content = "[" + DataForTesting.event4JSONcontent.replace("speed_dating", "?") + "]";
+        decoder.decodeEvents(new StringReader(content), new ArrayList<Event>());
+    }
+
+    @Test(expected = ParserException.class)
+    public void testNotAnArray() throws IOException, ParserException {
+        decoder.decodeEvents(
+            new StringReader(DataForTesting.event4JSONcontent),
+            new ArrayList<Event>());
+    }
+
+    private static void assertSameEvent(Event expected, Event actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getImagePath(), actual.getImagePath());
+        assertEquals(expected.getBasePrice(), actual.getBasePrice(), 0.009);
+        assertEquals(expected.getDateBegin(), actual.getDateBegin());
+        assertEquals(expected.getDateEnd(), actual.getDateEnd());
+        assertEquals(expected.getLastUpdate(), actual.getLastUpdate());
+        assertEquals(expected.getMaxPeople(), actual.getMaxPeople());
+        assertEquals(expected.getState(), actual.getState());
+        assertEquals(expected.getLocation().getId(), actual.getLocation().getId());
+        assertEquals(expected, actual);
+        assertEquals(
+            ((SpeedDatingEvent) expected).getEstablishment().getAddress(),
+            ((SpeedDatingEvent) actual).getEstablishment().getAddress());
+    }
+}
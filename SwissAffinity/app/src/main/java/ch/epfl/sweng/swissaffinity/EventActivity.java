@@ -5,6 +5,7 @@ import android.content.Intent;
 import android.graphics.Bitmap;
 import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
 import android.support.v7.app.AppCompatActivity;
 import android.util.Log;
 import android.view.View;
@@ -14,8 +15,10 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
 import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
 import ch.epfl.sweng.swissaffinity.gui.DataManager;
+import ch.epfl.sweng.swissaffinity.utilities.images.ImageLoader;
 import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClientException;
 import ch.epfl.sweng.swissaffinity.utilities.network.users.UserClientException;
 
@@ -25,6 +28,10 @@ import static ch.epfl.sweng.swissaffinity.utilities.parsers.DateParser.dateToStr
 public class EventActivity extends AppCompatActivity {
 
     private int mEventId;
+    private Event mEvent;
+    private ImageSlot mPicture;
+    private ImageSlot mLogo;
+    private boolean mDestroyed;
     private String mUserName;
     private int mRegistrationId;
     private Button mButton;
@@ -36,10 +43,14 @@ public class EventActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_event);
         mButton = (Button) findViewById(R.id.eventRegistration);
+        mPicture = new ImageSlot((ImageView) findViewById(R.id.eventPicture), false);
+        mLogo = new ImageSlot((ImageView) findViewById(R.id.eventLogo), true);
         mEventId = getIntent().getIntExtra(MainActivity.EXTRA_EVENT, -1);
-        Event event = DataManager.getEvent(mEventId);
-        if (event != null) {
-            new DownloadImageTask().execute(event.getImagePath());
+        mEvent = DataManager.getEvent(mEventId);
+        if (mEvent == null) {
+            new LoadEventTask().execute();
+        } else {
+            loadImages(mEvent);
         }
     }
 
@@ -55,6 +66,14 @@ public class EventActivity extends AppCompatActivity {
         super.onPause();
     }
 
+    @Override
+    protected void onDestroy() {
+        mDestroyed = true;
+        mPicture.destroy();
+        mLogo.destroy();
+        super.onDestroy();
+    }
+
     public void register(View view) {
         mButton.setEnabled(false);
         if (mUserName.isEmpty()) {
@@ -64,12 +83,28 @@ public class EventActivity extends AppCompatActivity {
         }
     }
 
+    private void loadImages(Event event) {
+        mPicture.load(event.getImagePath());
+        if (event instanceof SpeedDatingEvent) {
+            String logoPath = ((SpeedDatingEvent) event).getEstablishment().getLogoPath();
+            if (!logoPath.isEmpty()) {
+                mLogo.load(logoPath);
+            }
+        }
+    }
+
     private void updateUI() {
         mUserName = MainActivity.getPreferences().getString(USERNAME.get(), "");
         mRegistrationId = DataManager.getRegistrationId(mEventId);
         mButton.setEnabled(true);
         mButton.setText(mRegistrationId > 0 ? R.string.event_unregister : R.string.event_register);
-        Event event = DataManager.getEvent(mEventId);
+        EventSummary summary = DataManager.getEventSummary(mEventId);
+        if (summary != null) {
+            ((TextView) findViewById(R.id.eventName)).setText(summary.getName());
+            ((TextView) findViewById(R.id.eventDateBegin)).setText(dateToString(summary.getDateBegin()));
+            ((TextView) findViewById(R.id.eventLocation)).setText(summary.getLocation().getName());
+        }
+        Event event = mEvent;
         if (event != null) {
             ((TextView) findViewById(R.id.eventName)).setText(event.getName());
             ((TextView) findViewById(R.id.eventDateBegin)).setText(dateToString(event.getDateBegin()));
@@ -96,31 +131,110 @@ public class EventActivity extends AppCompatActivity {
         }
     }
 
-    private final class DownloadImageTask extends AsyncTask<String, Void, Bitmap> {
+    /**
+     * An image view of the activity, with the image it displays and its pending request.
+     */
+    private final class ImageSlot {
+
+        private final ImageView mView;
+        private final boolean mIsLogo;
+        private Bitmap mImage;
+        private ImageLoader mImageLoader; // the loader that delivered the image
+        private ImageLoader.Request mImageRequest;
+
+        private ImageSlot(ImageView view, boolean isLogo) {
+            mView = view;
+            mIsLogo = isLogo;
+        }
+
+        private void load(String path) {
+            if (mImageRequest != null) {
+                mImageRequest.cancel();
+            }
+            // the image is decoded for the size of its view
+            int width = mView.getLayoutParams().width;
+            if (width <= 0) {
+                width = getResources().getDisplayMetrics().widthPixels;
+            }
+            int height = Math.max(0, mView.getLayoutParams().height);
+            final ImageLoader imageLoader = DataManager.getImageLoader();
+            ImageLoader.Callback callback = new ImageLoader.Callback() {
+                @Override
+                public void onImage(Bitmap image) {
+                    if (mDestroyed) {
+                        // delivered before the posted cancel ran: nothing displays it.
+                        if (image != null) {
+                            imageLoader.release(image);
+                        }
+                        return;
+                    }
+                    mImageRequest = null;
+                    if (image != null) {
+                        mView.setContentDescription("");
+                        mView.setImageBitmap(image);
+                        mView.setVisibility(View.VISIBLE);
+                        if (mImage != null) {
+                            mImageLoader.release(mImage);
+                        }
+                        mImage = image;
+                        mImageLoader = imageLoader;
+                    }
+                }
+            };
+            mImageRequest = mIsLogo
+                            ? imageLoader.loadLogo(path, width, height, callback)
+                            : imageLoader.load(path, width, height, callback);
+        }
+
+        private void destroy() {
+            final ImageLoader.Request request = mImageRequest;
+            if (request != null) {
+                if (isChangingConfigurations()) {
+                    // the new activity requests the image before this runs, and shares the fetch.
+                    new Handler().post(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                request.cancel();
+                            }
+                        });
+                } else {
+                    request.cancel();
+                }
+                mImageRequest = null;
+            }
+            if (mImage != null) {
+                mView.setImageDrawable(null);
+                mImageLoader.release(mImage);
+                mImage = null;
+            }
+        }
+    }
+
+    private final class LoadEventTask extends AsyncTask<Void, Void, Event> {
         @Override
-        protected Bitmap doInBackground(String... params) {
-            Bitmap image = null;
-            String imagePath = params[0];
+        protected Event doInBackground(Void... params) {
+            Event event = null;
             try {
-                image = DataManager.getEventClient().imageFor(imagePath);
+                event = DataManager.fetchEvent(mEventId);
             } catch (EventClientException e) {
-                // no image.
+                Log.e("LoadEventTask", e.getMessage());
             }
-            return image;
+            return event;
         }
 
         @Override
-        protected void onPostExecute(Bitmap bitmap) {
-            if (bitmap != null) {
-                ImageView imageView = (ImageView) findViewById(R.id.eventPicture);
-                imageView.setContentDescription("");
-                imageView.setImageBitmap(bitmap);
+        protected void onPostExecute(Event event) {
+            if (event != null) {
+                mEvent = event;
+                loadImages(event);
+                updateUI();
             }
-            super.onPostExecute(bitmap);
+            super.onPostExecute(event);
         }
     }
 
-    private final class RegisterEventTask extends AsyncTask<Void, Void, Void> {
+    private final class RegisterEventTask extends AsyncTask<Void, Void, Event> {
 
         @Override
         protected void onPreExecute() {
@@ -130,7 +244,8 @@ public class EventActivity extends AppCompatActivity {
         }
 
         @Override
-        protected Void doInBackground(Void... params) {
+        protected Event doInBackground(Void... params) {
+            Event event = null;
             try {
                 if (mRegistrationId > 0) {
                     DataManager.getUserClient().unregisterUser(mRegistrationId);
@@ -142,11 +257,19 @@ public class EventActivity extends AppCompatActivity {
                 mErrorMessage = e.getMessage();
             }
             DataManager.updateData(EventActivity.this);
-            return null;
+            try {
+                event = DataManager.fetchEvent(mEventId);
+            } catch (EventClientException e) {
+                Log.e("RegisterEventTask", e.getMessage());
+            }
+            return event;
         }
 
         @Override
-        protected void onPostExecute(Void arg) {
+        protected void onPostExecute(Event event) {
+            if (event != null) {
+                mEvent = event;
+            }
             if (mDialog != null && mDialog.isShowing()) {
                 mDialog.dismiss();
             }
@@ -14,6 +14,7 @@ import android.widget.TextView;
 
 import ch.epfl.sweng.swissaffinity.gui.DataManager;
 import ch.epfl.sweng.swissaffinity.gui.EventExpandableListAdapter;
+import ch.epfl.sweng.swissaffinity.utilities.network.DefaultNetworkProvider;
 
 import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.USERNAME;
 
@@ -54,7 +55,9 @@ public class MainActivity extends AppCompatActivity {
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        DefaultNetworkProvider.configureConnectionPool();
         SHARED_PREFERENCES = getSharedPreferences(SHARED_PREFS_ID, MODE_PRIVATE);
+        DataManager.openImageCache(this);
         mListView = (ExpandableListView) findViewById(R.id.mainEventListView);
         mListView.setAdapter(new EventExpandableListAdapter(this));
     }
@@ -99,7 +102,7 @@ public class MainActivity extends AppCompatActivity {
         new DataManagerTask(!DataManager.hasData()).execute();
     }
 
-    private final class DataManagerTask extends AsyncTask<Void, Void, Void> {
+    private final class DataManagerTask extends AsyncTask<Void, Void, Boolean> {
         private final boolean mWithDialog;
 
         DataManagerTask(boolean withDialog) {
@@ -117,18 +120,19 @@ public class MainActivity extends AppCompatActivity {
         }
 
         @Override
-        protected Void doInBackground(Void... params) {
-            DataManager.updateData(MainActivity.this);
-            return null;
+        protected Boolean doInBackground(Void... params) {
+            return DataManager.updateData(MainActivity.this);
         }
 
         @Override
-        protected void onPostExecute(Void aVoid) {
-            DataManager.displayData(mListView);
+        protected void onPostExecute(Boolean changed) {
+            if (changed) {
+                DataManager.displayData(mListView);
+            }
             if (mDialog != null && mDialog.isShowing()) {
                 mDialog.dismiss();
             }
-            super.onPostExecute(aVoid);
+            super.onPostExecute(changed);
         }
     }
 }
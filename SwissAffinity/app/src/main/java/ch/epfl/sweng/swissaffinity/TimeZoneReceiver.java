@@ -0,0 +1,19 @@
+package ch.epfl.sweng.swissaffinity;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import ch.epfl.sweng.swissaffinity.utilities.parsers.DateParser;
+
+/**
+ * Receiver of the changes of the time zone of the device, which make the dates already
+ * formatted for display wrong.
+ */
+public class TimeZoneReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        DateParser.onTimeZoneChanged();
+    }
+}
@@ -0,0 +1,110 @@
+package ch.epfl.sweng.swissaffinity.events;
+
+import android.support.annotation.NonNull;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+import ch.epfl.sweng.swissaffinity.utilities.Location;
+
+/**
+ * Representation of the attributes of an event shown in the lists of events.
+ * <p/>
+ * The lists hold summaries only: the full {@link Event} is fetched when it is displayed.
+ */
+public final class EventSummary implements Serializable, Comparable<EventSummary> {
+
+    private final int mId;
+    private final String mName;
+    private final Location mLocation;
+    private final long mDateBegin;
+
+    /**
+     * Constructor of the class
+     *
+     * @param id        the event ID
+     * @param name      the name of the event
+     * @param location  the location of the event {@link Location}
+     * @param dateBegin the beginning date and time {@link Date}
+     */
+    public EventSummary(int id, String name, Location location, Date dateBegin) {
+        if (id < 0 || name == null || location == null || dateBegin == null) {
+            throw new IllegalArgumentException();
+        }
+        mId = id;
+        mName = name;
+        mLocation = location;
+        mDateBegin = dateBegin.getTime();
+    }
+
+    /**
+     * Constructor of the summary of an event
+     *
+     * @param event the event {@link Event}
+     */
+    public EventSummary(Event event) {
+        this(event.getId(), event.getName(), event.getLocation(), event.getDateBegin());
+    }
+
+    /**
+     * Getter for the ID
+     *
+     * @return the id
+     */
+    public int getId() {
+        return mId;
+    }
+
+    /**
+     * Getter for the name
+     *
+     * @return the name
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Getter for the location
+     *
+     * @return the location {@link Location}
+     */
+    public Location getLocation() {
+        return mLocation;
+    }
+
+    /**
+     * Getter for the beginning date
+     *
+     * @return the beginning date and time {@link Date}
+     */
+    public Date getDateBegin() {
+        return new Date(mDateBegin);
+    }
+
+    @Override
+    public int compareTo(@NonNull EventSummary other) {
+        return mDateBegin < other.mDateBegin ? -1 : (mDateBegin == other.mDateBegin ? 0 : 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EventSummary that = (EventSummary) o;
+        return Objects.equals(mId, that.mId) &&
+               Objects.equals(mDateBegin, that.mDateBegin) &&
+               Objects.equals(mName, that.mName) &&
+               Objects.equals(mLocation, that.mLocation);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mId, mName, mLocation, mDateBegin);
+    }
+}
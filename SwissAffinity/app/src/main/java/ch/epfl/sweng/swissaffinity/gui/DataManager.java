@@ -9,19 +9,32 @@ import android.net.NetworkInfo;
 import android.util.Log;
 import android.widget.ExpandableListView;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import ch.epfl.sweng.swissaffinity.MainActivity;
 import ch.epfl.sweng.swissaffinity.R;
 import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
 import ch.epfl.sweng.swissaffinity.users.Registration;
 import ch.epfl.sweng.swissaffinity.users.User;
 import ch.epfl.sweng.swissaffinity.utilities.Location;
+import ch.epfl.sweng.swissaffinity.utilities.images.ImageDiskCache;
+import ch.epfl.sweng.swissaffinity.utilities.images.ImageLoader;
 import ch.epfl.sweng.swissaffinity.utilities.network.DefaultNetworkProvider;
 import ch.epfl.sweng.swissaffinity.utilities.network.NetworkProvider;
 import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClient;
@@ -29,6 +42,7 @@ import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClientException
 import ch.epfl.sweng.swissaffinity.utilities.network.events.NetworkEventClient;
 import ch.epfl.sweng.swissaffinity.utilities.network.users.NetworkUserClient;
 import ch.epfl.sweng.swissaffinity.utilities.network.users.UserClient;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.Interner;
 
 import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.BIRTHDAY;
 import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.EMAIL;
@@ -41,14 +55,56 @@ import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.USERNAME;
 
 /**
  * Manager for the data fetched from the server. (static class)
+ * <p/>
+ * All the events are held as {@link EventSummary}: the full events are the ones of the
+ * registrations, and the few last ones fetched on demand for display.
+ * <p/>
+ * The summaries and the registrations are indexed by event ID when they are updated,
+ * so that the lookups by ID take constant time and do not allocate (see {@link IdIndex}).
+ * <p/>
+ * The data is held in an immutable {@link Snapshot}: an update builds a new one off the UI
+ * thread and publishes it with a single reference swap, so that the readers never block nor
+ * see partly updated lists. The updates are serialised, so concurrent refreshes cannot
+ * interleave, and an update is discarded if the user data was deleted meanwhile.
+ * <p/>
+ * The summaries and the registrations are fetched concurrently, within a common deadline.
+ * The part that was fetched is published even if the other one failed. A part that failed
+ * or was abandoned is fetched unconditionally by the next update: its request may still
+ * have completed in the background and stored new validators, so that a conditional
+ * request would skip content that was never published.
  */
 public class DataManager {
 
-    private final static List<Event> ALL_EVENTS = new ArrayList<>();
-    private final static List<Registration> REGISTRATIONS = new ArrayList<>();
+    private final static int EVENT_DETAILS_SIZE = 8;
+    private final static long FETCH_TIMEOUT_MS = 15000;
+    private final static String IMAGE_CACHE_DIRECTORY = "images";
+    private final static long IMAGE_CACHE_SIZE = 10 * 1024 * 1024; // bytes
 
-    private static EventClient EVENT_CLIENT;
-    private static UserClient USER_CLIENT;
+    private final static AtomicReference<Snapshot> SNAPSHOT =
+        new AtomicReference<>(Snapshot.EMPTY);
+    private final static Object UPDATE_LOCK = new Object();
+    private final static Object CLIENT_LOCK = new Object();
+    private final static ExecutorService FETCH_EXECUTOR = Executors.newFixedThreadPool(
+        2, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "DataManager");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    private final static IdCache<Event> EVENT_DETAILS = new IdCache<>(EVENT_DETAILS_SIZE);
+
+    private final static DefaultNetworkProvider NETWORK_PROVIDER = new DefaultNetworkProvider();
+
+    // created on first use under the client lock, as the fetches run concurrently
+    private static volatile EventClient EVENT_CLIENT;
+    private static volatile UserClient USER_CLIENT;
+    private static volatile ImageLoader IMAGE_LOADER;
+    private static ImageDiskCache IMAGE_DISK_CACHE;
+    // guarded by the update lock
+    private static boolean SUMMARIES_STALE = false;
+    private static boolean REGISTRATIONS_STALE = false;
 
     private DataManager() {
     }
@@ -59,12 +115,41 @@ public class DataManager {
      * @return the event client
      */
     public static EventClient getEventClient() {
-        if (EVENT_CLIENT == null) {
-            EVENT_CLIENT = new NetworkEventClient(
-                NetworkProvider.SERVER_URL,
-                new DefaultNetworkProvider());
+        EventClient eventClient = EVENT_CLIENT;
+        if (eventClient == null) {
+            synchronized (CLIENT_LOCK) {
+                eventClient = EVENT_CLIENT;
+                if (eventClient == null) {
+                    NetworkEventClient networkEventClient =
+                        new NetworkEventClient(NetworkProvider.SERVER_URL, NETWORK_PROVIDER);
+                    networkEventClient.setDiskCache(IMAGE_DISK_CACHE);
+                    eventClient = networkEventClient;
+                    EVENT_CLIENT = eventClient;
+                }
+            }
+        }
+        return eventClient;
+    }
+
+    /**
+     * Set up the cache of the images on the disk, in the cache directory of the application.
+     * The cache is only read when the first image is requested.
+     *
+     * @param context the activity context
+     */
+    public static void openImageCache(Context context) {
+        if (context == null) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (CLIENT_LOCK) {
+            if (IMAGE_DISK_CACHE == null) {
+                File directory = new File(context.getCacheDir(), IMAGE_CACHE_DIRECTORY);
+                IMAGE_DISK_CACHE = new ImageDiskCache(directory, IMAGE_CACHE_SIZE);
+                if (EVENT_CLIENT instanceof NetworkEventClient) {
+                    ((NetworkEventClient) EVENT_CLIENT).setDiskCache(IMAGE_DISK_CACHE);
+                }
+            }
         }
-        return EVENT_CLIENT;
     }
 
     /**
@@ -76,7 +161,32 @@ public class DataManager {
         if (eventClient == null) {
             throw new IllegalArgumentException();
         }
-        EVENT_CLIENT = eventClient;
+        synchronized (CLIENT_LOCK) {
+            EVENT_CLIENT = eventClient;
+            if (IMAGE_LOADER != null) {
+                IMAGE_LOADER.shutdown();
+                IMAGE_LOADER = null;
+            }
+        }
+    }
+
+    /**
+     * Getter for the image loader, which fetches the images with the event client
+     *
+     * @return the image loader
+     */
+    public static ImageLoader getImageLoader() {
+        ImageLoader imageLoader = IMAGE_LOADER;
+        if (imageLoader == null) {
+            synchronized (CLIENT_LOCK) {
+                imageLoader = IMAGE_LOADER;
+                if (imageLoader == null) {
+                    imageLoader = new ImageLoader(getEventClient());
+                    IMAGE_LOADER = imageLoader;
+                }
+            }
+        }
+        return imageLoader;
     }
 
     /**
@@ -85,11 +195,18 @@ public class DataManager {
      * @return the user client
      */
     public static UserClient getUserClient() {
-        if (USER_CLIENT == null) {
-            USER_CLIENT =
-                new NetworkUserClient(NetworkProvider.SERVER_URL, new DefaultNetworkProvider());
+        UserClient userClient = USER_CLIENT;
+        if (userClient == null) {
+            synchronized (CLIENT_LOCK) {
+                userClient = USER_CLIENT;
+                if (userClient == null) {
+                    userClient =
+                        new NetworkUserClient(NetworkProvider.SERVER_URL, NETWORK_PROVIDER);
+                    USER_CLIENT = userClient;
+                }
+            }
         }
-        return USER_CLIENT;
+        return userClient;
     }
 
     /**
@@ -101,7 +218,9 @@ public class DataManager {
         if (userClient == null) {
             throw new IllegalArgumentException();
         }
-        USER_CLIENT = userClient;
+        synchronized (CLIENT_LOCK) {
+            USER_CLIENT = userClient;
+        }
     }
 
     /**
@@ -135,32 +254,95 @@ public class DataManager {
      * @return if there are events in the manager
      */
     public static boolean hasData() {
-        return !REGISTRATIONS.isEmpty() || !ALL_EVENTS.isEmpty();
+        Snapshot snapshot = SNAPSHOT.get();
+        return !snapshot.mRegistrations.isEmpty() || !snapshot.mEvents.isEmpty();
     }
 
     /**
      * Update the internal data of the manager<br>
-     * Has to be used async.
+     * Has to be used async.<br>
+     * Data already held is only downloaded and parsed again if it changed on the server.
+     *
+     * @return if the data changed
      */
-    public static void updateData(Context context) {
+    public static boolean updateData(Context context) {
         if (context == null) {
             throw new IllegalArgumentException();
         }
-        if (isNetworkConnected(context)) {
-            List<Event> allEvents = new ArrayList<>();
-            List<Registration> registrations = new ArrayList<>();
-            String userName = MainActivity.getPreferences().getString(USERNAME.get(), "");
+        if (!isNetworkConnected(context)) {
+            return false;
+        }
+        synchronized (UPDATE_LOCK) {
+            Snapshot current = SNAPSHOT.get();
+            List<EventSummary> events = current.mEvents;
+            List<Registration> registrations = current.mRegistrations;
+            String owner = current.mUserName;
+            boolean changed = false;
+            final String userName = MainActivity.getPreferences().getString(USERNAME.get(), "");
+            if (!userName.equals(owner)) {
+                registrations = Collections.emptyList();
+                owner = null;
+                changed = true;
+            }
+            final boolean allSummaries = events.isEmpty() || SUMMARIES_STALE;
+            final boolean allRegistrations = owner == null || REGISTRATIONS_STALE;
+            Future<List<EventSummary>> summariesLeg = FETCH_EXECUTOR.submit(
+                new Fetch<List<EventSummary>>("summaries") {
+                    @Override
+                    List<EventSummary> fetch() throws EventClientException {
+                        return allSummaries ?
+                            getEventClient().fetchSummaries() :
+                            getEventClient().fetchSummariesIfModified();
+                    }
+                });
+            Future<List<Registration>> registrationsLeg = FETCH_EXECUTOR.submit(
+                new Fetch<List<Registration>>("registrations") {
+                    @Override
+                    List<Registration> fetch() throws EventClientException {
+                        return allRegistrations ?
+                            getEventClient().fetchForUser(userName) :
+                            getEventClient().fetchForUserIfModified(userName);
+                    }
+                });
+            long deadline = System.currentTimeMillis() + FETCH_TIMEOUT_MS;
+            boolean summariesChanged = false;
+            try {
+                List<EventSummary> summaries = await(summariesLeg, deadline);
+                SUMMARIES_STALE = false;
+                if (summaries != null) {
+                    Collections.sort(summaries);
+                    events = summaries;
+                    summariesChanged = true;
+                    changed = true;
+                }
+            } catch (EventClientException e) {
+                SUMMARIES_STALE = true;
+            }
             try {
-                allEvents.addAll(getEventClient().fetchAll());
-                registrations.addAll(getEventClient().fetchForUser(userName));
+                List<Registration> fetched = await(registrationsLeg, deadline);
+                REGISTRATIONS_STALE = false;
+                if (fetched != null) {
+                    registrations = fetched;
+                    owner = userName;
+                    changed = true;
+                }
             } catch (EventClientException e) {
-                Log.e("FetchEvent", e.getMessage());
+                REGISTRATIONS_STALE = true;
             }
-            Collections.sort(allEvents);
-            REGISTRATIONS.clear();
-            REGISTRATIONS.addAll(registrations);
-            ALL_EVENTS.clear();
-            ALL_EVENTS.addAll(allEvents);
+            // the catalogue holds the shared venues now: the pools are not needed anymore
+            Interner.clearAll();
+            Log.d("NetworkTransfer", NETWORK_PROVIDER.getTransferStatistics().toString());
+            // The user data may have been deleted during the update: keep it deleted.
+            // Nothing is lost then, as the next update fetches everything again.
+            if (!changed ||
+                !SNAPSHOT.compareAndSet(current, new Snapshot(events, registrations, owner)))
+            {
+                return false;
+            }
+            if (summariesChanged) {
+                EVENT_DETAILS.evictAll();
+            }
+            return true;
         }
     }
 
@@ -173,10 +355,10 @@ public class DataManager {
         if (listView == null) {
             throw new IllegalArgumentException();
         }
-        if (hasData()) {
-            List<Event> myEvents = getMyEvents(REGISTRATIONS);
-            List<Event> upcomingEvents = filterEvents(ALL_EVENTS);
-            upcomingEvents.removeAll(myEvents);
+        Snapshot snapshot = SNAPSHOT.get();
+        if (!snapshot.mRegistrations.isEmpty() || !snapshot.mEvents.isEmpty()) {
+            List<EventSummary> myEvents = getMyEvents(snapshot);
+            List<EventSummary> upcomingEvents = filterEvents(snapshot);
             EventExpandableListAdapter adapter =
                 (EventExpandableListAdapter) listView.getExpandableListAdapter();
             adapter.setData(Arrays.asList(myEvents, upcomingEvents));
@@ -190,8 +372,8 @@ public class DataManager {
      * Delete the user data (f.ex. after a log out)
      */
     public static void deleteUser() {
-        REGISTRATIONS.clear();
-        ALL_EVENTS.clear();
+        SNAPSHOT.set(Snapshot.EMPTY);
+        EVENT_DETAILS.evictAll();
         MainActivity.getPreferences().edit()
                     .putString(FACEBOOK_ID.get(), null)
                     .putString(USERNAME.get(), null)
@@ -241,63 +423,115 @@ public class DataManager {
      * @return the registration ID
      */
     public static int getRegistrationId(int eventId) {
-        for (Registration registration : REGISTRATIONS) {
-            if (registration.getEvent().getId() == eventId) {
-                return registration.getId();
-            }
-        }
-        return -1;
+        Registration registration = SNAPSHOT.get().mRegistrationsById.get(eventId);
+        return registration == null ? -1 : registration.getId();
     }
 
     /**
-     * Return an event given its ID
+     * Return an event given its ID, if it is held by the manager
      *
      * @param eventId the event ID
-     * @return the event
+     * @return the event, or null if it has to be fetched
      */
     public static Event getEvent(int eventId) {
-        for (Event event : ALL_EVENTS) {
-            if (event.getId() == eventId) {
-                return event;
-            }
+        Registration registration = SNAPSHOT.get().mRegistrationsById.get(eventId);
+        return registration == null ? EVENT_DETAILS.get(eventId) : registration.getEvent();
+    }
+
+    /**
+     * Return an event given its ID, fetching it from the server if it is not held.<br>
+     * Has to be used async.
+     *
+     * @param eventId the event ID
+     * @return the event
+     * @throws EventClientException if the event cannot be fetched
+     */
+    public static Event fetchEvent(int eventId) throws EventClientException {
+        Event event = getEvent(eventId);
+        if (event == null) {
+            event = getEventClient().fetchBy(eventId);
+            EVENT_DETAILS.put(eventId, event);
+        }
+        return event;
+    }
+
+    /**
+     * Return the summary of an event given its ID
+     *
+     * @param eventId the event ID
+     * @return the summary of the event, or null if the event is unknown
+     */
+    public static EventSummary getEventSummary(int eventId) {
+        EventSummary summary = SNAPSHOT.get().mSummariesById.get(eventId);
+        if (summary != null) {
+            return summary;
         }
-        return null;
+        Event event = getEvent(eventId);
+        return event == null ? null : new EventSummary(event);
     }
 
     /**
-     * Getter for the events registered
+     * Getter for the summaries of the events registered
      *
-     * @param registrations the registrations
-     * @return the events registered
+     * @param snapshot the data of the manager
+     * @return the summaries of the events registered
      */
-    private static List<Event> getMyEvents(List<Registration> registrations) {
-        List<Event> result = new ArrayList<>();
-        for (Registration registration : registrations) {
-            result.add(registration.getEvent());
+    private static List<EventSummary> getMyEvents(Snapshot snapshot) {
+        List<EventSummary> result = new ArrayList<>();
+        for (Registration registration : snapshot.mRegistrations) {
+            result.add(new EventSummary(registration.getEvent()));
         }
         return result;
     }
 
     /**
-     * Getter for upcoming events from all events according locations
+     * Getter for upcoming events from all events according locations.<br>
+     * The events registered are left out by ID, with the index of the registrations.
      *
-     * @param allEvents all the events
+     * @param snapshot the data of the manager
      * @return the upcoming events
      */
-    private static List<Event> filterEvents(List<Event> allEvents) {
+    private static List<EventSummary> filterEvents(Snapshot snapshot) {
         Set<String> myLocations = MainActivity.getPreferences()
                                               .getStringSet(LOCATIONS_INTEREST.get(), null);
-        if (myLocations != null) {
-            List<Event> result = new ArrayList<>();
-            for (Event event : allEvents) {
-                String location = event.getLocation().getName();
-                if (myLocations.contains(location)) {
-                    result.add(event);
-                }
+        List<EventSummary> result = new ArrayList<>();
+        for (EventSummary event : snapshot.mEvents) {
+            if (snapshot.mRegistrationsById.contains(event.getId())) {
+                continue;
+            }
+            String location = event.getLocation().getName();
+            if (myLocations == null || myLocations.contains(location)) {
+                result.add(event);
             }
-            return result;
         }
-        return allEvents;
+        return result;
+    }
+
+    /**
+     * Wait for a fetch until the deadline. A fetch that failed or did not complete in time
+     * is logged and cancelled.
+     *
+     * @param leg      the fetch
+     * @param deadline the deadline, in milliseconds since the epoch
+     * @return the result of the fetch, or null if the content did not change
+     * @throws EventClientException if the fetch failed or did not complete in time
+     */
+    private static <T> T await(Future<T> leg, long deadline) throws EventClientException {
+        try {
+            long timeout = Math.max(0, deadline - System.currentTimeMillis());
+            return leg.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Log.e("FetchEvent", String.valueOf(e.getCause().getMessage()));
+            throw new EventClientException(e.getCause());
+        } catch (TimeoutException e) {
+            Log.e("FetchEvent", "Timeout");
+            throw new EventClientException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventClientException(e);
+        } finally {
+            leg.cancel(true);
+        }
     }
 
     /**
@@ -310,4 +544,78 @@ public class DataManager {
         NetworkInfo network = connectivityManager.getActiveNetworkInfo();
         return network != null && network.isConnected();
     }
+
+    /**
+     * Fetch run concurrently with the others, which logs its latency.
+     */
+    private static abstract class Fetch<T> implements Callable<T> {
+
+        private final String mName;
+
+        /**
+         * Constructor of the class
+         *
+         * @param name the name of the fetch in the logs
+         */
+        Fetch(String name) {
+            mName = name;
+        }
+
+        abstract T fetch() throws EventClientException;
+
+        @Override
+        public T call() throws EventClientException {
+            long start = System.nanoTime();
+            try {
+                return fetch();
+            } finally {
+                long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                Log.d("FetchLatency", mName + ": " + latency + " ms");
+            }
+        }
+    }
+
+    /**
+     * Immutable state of the manager: the summaries of all the events, the registrations,
+     * their indexes by event ID and the owner of the registrations.<br>
+     * A snapshot is never modified once it is published.
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(
+            Collections.<EventSummary>emptyList(),
+            Collections.<Registration>emptyList(),
+            null);
+
+        private final List<EventSummary> mEvents;
+        private final List<Registration> mRegistrations;
+        private final IdIndex<EventSummary> mSummariesById;
+        private final IdIndex<Registration> mRegistrationsById;
+        private final String mUserName;
+
+        /**
+         * Constructor of the class
+         *
+         * @param events        the summaries of all the events, sorted
+         * @param registrations the registrations
+         * @param userName      the owner of the registrations, or null if there is none
+         */
+        private Snapshot(
+            List<EventSummary> events,
+            List<Registration> registrations,
+            String userName)
+        {
+            mEvents = Collections.unmodifiableList(new ArrayList<>(events));
+            mRegistrations = Collections.unmodifiableList(new ArrayList<>(registrations));
+            mSummariesById = new IdIndex<>(mEvents.size());
+            for (EventSummary summary : mEvents) {
+                mSummariesById.put(summary.getId(), summary);
+            }
+            mRegistrationsById = new IdIndex<>(mRegistrations.size());
+            for (Registration registration : mRegistrations) {
+                mRegistrationsById.put(registration.getEvent().getId(), registration);
+            }
+            mUserName = userName;
+        }
+    }
 }
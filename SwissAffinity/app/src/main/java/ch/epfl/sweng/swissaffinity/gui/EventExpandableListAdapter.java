@@ -13,13 +13,15 @@ import java.util.List;
 import ch.epfl.sweng.swissaffinity.EventActivity;
 import ch.epfl.sweng.swissaffinity.MainActivity;
 import ch.epfl.sweng.swissaffinity.R;
-import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.DateParser;
 
 /**
- * Representation of an expandable list adapter for the events.
+ * Representation of an expandable list adapter for the events, from their summaries.
  */
-public class EventExpandableListAdapter extends AbstractExpandableListAdapter<String, Event> {
+public class EventExpandableListAdapter
+    extends AbstractExpandableListAdapter<String, EventSummary>
+{
 
     /**
      * Constructor of the class.
@@ -56,7 +58,7 @@ public class EventExpandableListAdapter extends AbstractExpandableListAdapter<St
             View convertView,
             ViewGroup parent)
     {
-        final Event event = (Event) getChild(groupPosition, childPosition);
+        final EventSummary event = (EventSummary) getChild(groupPosition, childPosition);
         if (convertView == null) {
             LayoutInflater inflater = LayoutInflater.from(mContext);
             convertView = inflater.inflate(R.layout.list_item, parent, false);
@@ -80,7 +82,7 @@ public class EventExpandableListAdapter extends AbstractExpandableListAdapter<St
         return convertView;
     }
 
-    public void setData(List<List<Event>> children)
+    public void setData(List<List<EventSummary>> children)
     {
         if (children == null || children.size() > 2) {
             throw new IllegalArgumentException();
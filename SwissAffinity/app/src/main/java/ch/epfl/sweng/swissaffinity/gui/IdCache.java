@@ -0,0 +1,81 @@
+package ch.epfl.sweng.swissaffinity.gui;
+
+/**
+ * Small cache of values by ID, which evicts the least recently used value when it is full.
+ * <p/>
+ * It is meant for a handful of values: the IDs are kept in a primitive array and searched
+ * linearly, so that the lookups neither box the ID nor allocate.
+ *
+ * @param <V> the type of the values
+ */
+final class IdCache<V> {
+
+    private final int[] mIds;
+    private final Object[] mValues;
+    private final long[] mLastUses;
+    private long mClock;
+
+    /**
+     * Constructor of the class
+     *
+     * @param maxSize the maximum number of values held
+     */
+    IdCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        mIds = new int[maxSize];
+        mValues = new Object[maxSize];
+        mLastUses = new long[maxSize];
+    }
+
+    /**
+     * @param id the ID
+     * @return the value of the ID, or null if it is not held
+     */
+    @SuppressWarnings("unchecked")
+    synchronized V get(int id) {
+        for (int i = 0; i < mValues.length; ++i) {
+            if (mValues[i] != null && mIds[i] == id) {
+                mLastUses[i] = ++mClock;
+                return (V) mValues[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hold the value of an ID, replacing the previous one or evicting the least recently
+     * used value if needed.
+     *
+     * @param id    the ID
+     * @param value the value
+     */
+    synchronized void put(int id, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        int slot = 0;
+        for (int i = 0; i < mValues.length; ++i) {
+            if (mValues[i] != null && mIds[i] == id) {
+                slot = i;
+                break;
+            }
+            if (mValues[slot] != null && (mValues[i] == null || mLastUses[i] < mLastUses[slot])) {
+                slot = i;
+            }
+        }
+        mIds[slot] = id;
+        mValues[slot] = value;
+        mLastUses[slot] = ++mClock;
+    }
+
+    /**
+     * Forget all the values.
+     */
+    synchronized void evictAll() {
+        for (int i = 0; i < mValues.length; ++i) {
+            mValues[i] = null;
+        }
+    }
+}
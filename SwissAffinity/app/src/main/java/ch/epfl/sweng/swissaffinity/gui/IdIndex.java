@@ -0,0 +1,94 @@
+package ch.epfl.sweng.swissaffinity.gui;
+
+/**
+ * Index of values by ID, with constant time lookups that neither box the ID nor allocate.
+ * <p/>
+ * The IDs are hashed in an open addressing table of primitive keys, which is at most half
+ * full. The index is filled once when it is built and only read afterwards: it is not
+ * synchronized, and has to be published safely (f.ex. through a final field).
+ *
+ * @param <V> the type of the values
+ */
+final class IdIndex<V> {
+
+    private final int[] mIds;
+    private final Object[] mValues;
+    private final int mMask;
+    private int mSize;
+
+    /**
+     * Constructor of the class
+     *
+     * @param capacity the number of values the index will hold
+     */
+    IdIndex(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        int length = 2;
+        while (length < 2 * capacity) {
+            length <<= 1;
+        }
+        mIds = new int[length];
+        mValues = new Object[length];
+        mMask = length - 1;
+    }
+
+    /**
+     * Map an ID to a value, replacing the previous value if any.
+     *
+     * @param id    the ID
+     * @param value the value
+     */
+    void put(int id, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        int slot = slotOf(id);
+        if (mValues[slot] == null) {
+            if (2 * (mSize + 1) > mValues.length) {
+                throw new IllegalStateException("The index is full.");
+            }
+            ++mSize;
+            mIds[slot] = id;
+        }
+        mValues[slot] = value;
+    }
+
+    /**
+     * @param id the ID
+     * @return the value mapped to the ID, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    V get(int id) {
+        return (V) mValues[slotOf(id)];
+    }
+
+    /**
+     * @param id the ID
+     * @return if a value is mapped to the ID
+     */
+    boolean contains(int id) {
+        return mValues[slotOf(id)] != null;
+    }
+
+    /**
+     * @return the number of IDs mapped
+     */
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * @return the slot of the ID, or the empty slot where it would be put
+     */
+    private int slotOf(int id) {
+        // the IDs are often consecutive: their bits are mixed first
+        int hash = id * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mMask;
+        while (mValues[slot] != null && mIds[slot] != id) {
+            slot = (slot + 1) & mMask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,223 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import android.graphics.Bitmap;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of bitmaps that are not used anymore, whose memory is reused to decode other images
+ * (see {@link android.graphics.BitmapFactory.Options#inBitmap}).
+ * <p/>
+ * A bitmap is only reused once nothing displays it: the views retain the bitmaps they
+ * display and release them afterwards, and a bitmap put in the pool while it is retained
+ * is only pooled when it is released by all its views.
+ * <p/>
+ * The pool is bounded by the size of its bitmaps in bytes; the oldest ones are recycled
+ * first.
+ */
+public class BitmapPool {
+
+    public static final int HEAP_FRACTION = 16;
+
+    // a bitmap is not reused for an image that is much smaller than it
+    private static final int MAX_SIZE_MULTIPLE = 4;
+
+    private final long mMaxBytes;
+    private final LinkedList<Bitmap> mBitmaps = new LinkedList<>();
+    private final Map<Bitmap, Integer> mRetained = new WeakHashMap<>();
+    private final Map<Bitmap, Boolean> mPending = new WeakHashMap<>();
+    private long mSize;
+    private int mRequestCount;
+    private int mReuseCount;
+    private long mReusedBytes;
+
+    /**
+     * Constructor of the class
+     *
+     * @param maxBytes the maximum size of the bitmaps held, in bytes
+     */
+    public BitmapPool(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException();
+        }
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Constructor of a pool sized to a fraction ({@link #HEAP_FRACTION}) of the heap
+     */
+    public BitmapPool() {
+        this(Runtime.getRuntime().maxMemory() / HEAP_FRACTION);
+    }
+
+    /**
+     * Take a bitmap of the pool large enough for an image.
+     *
+     * @param width  the width of the image, in pixels
+     * @param height the height of the image, in pixels
+     * @param config the configuration of the image {@link Bitmap.Config}
+     * @return a mutable bitmap to decode the image into, or null if there is none
+     */
+    public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        if (width < 1 || height < 1 || config == null) {
+            throw new IllegalArgumentException();
+        }
+        ++mRequestCount;
+        long bytes = (long) width * height * bytesPerPixel(config);
+        Bitmap best = null;
+        for (Bitmap bitmap : mBitmaps) {
+            long allocation = bitmap.getAllocationByteCount();
+            if (bitmap.getConfig() == config &&
+                allocation >= bytes &&
+                allocation <= MAX_SIZE_MULTIPLE * bytes &&
+                (best == null || allocation < best.getAllocationByteCount())) {
+                best = bitmap;
+            }
+        }
+        if (best != null) {
+            mBitmaps.remove(best);
+            mSize -= best.getAllocationByteCount();
+            ++mReuseCount;
+            mReusedBytes += bytes;
+        }
+        return best;
+    }
+
+    /**
+     * Give a bitmap that is not used by its owner anymore (f.ex. evicted from a cache).
+     * It is pooled when no view displays it.
+     *
+     * @param bitmap the bitmap
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null) {
+            throw new IllegalArgumentException();
+        }
+        if (mRetained.containsKey(bitmap)) {
+            mPending.put(bitmap, Boolean.TRUE);
+            return;
+        }
+        if (!bitmap.isMutable() || bitmap.isRecycled() || mBitmaps.contains(bitmap)) {
+            return;
+        }
+        int allocation = bitmap.getAllocationByteCount();
+        if (allocation > mMaxBytes) {
+            return;
+        }
+        mBitmaps.addLast(bitmap);
+        mSize += allocation;
+        Iterator<Bitmap> it = mBitmaps.iterator();
+        while (mSize > mMaxBytes && it.hasNext()) {
+            Bitmap oldest = it.next();
+            it.remove();
+            mSize -= oldest.getAllocationByteCount();
+            oldest.recycle();
+        }
+    }
+
+    /**
+     * Mark a bitmap as displayed, so that it is not reused.
+     *
+     * @param bitmap the bitmap
+     */
+    public synchronized void retain(Bitmap bitmap) {
+        if (bitmap == null) {
+            throw new IllegalArgumentException();
+        }
+        Integer count = mRetained.get(bitmap);
+        mRetained.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Mark a bitmap as not displayed anymore by a view that retained it.
+     *
+     * @param bitmap the bitmap
+     */
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null) {
+            throw new IllegalArgumentException();
+        }
+        Integer count = mRetained.get(bitmap);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            mRetained.put(bitmap, count - 1);
+            return;
+        }
+        mRetained.remove(bitmap);
+        if (mPending.remove(bitmap) != null) {
+            put(bitmap);
+        }
+    }
+
+    /**
+     * Getter for the size of the bitmaps held
+     *
+     * @return the size of the bitmaps held, in bytes
+     */
+    public synchronized long size() {
+        return mSize;
+    }
+
+    /**
+     * @return the number of bitmaps requested
+     */
+    public synchronized int requestCount() {
+        return mRequestCount;
+    }
+
+    /**
+     * @return the number of bitmaps reused
+     */
+    public synchronized int reuseCount() {
+        return mReuseCount;
+    }
+
+    /**
+     * @return the number of bytes of the images decoded into reused bitmaps,
+     * which did not have to be allocated
+     */
+    public synchronized long reusedBytes() {
+        return mReusedBytes;
+    }
+
+    /**
+     * Recycle all the bitmaps of the pool.
+     */
+    public synchronized void clear() {
+        for (Bitmap bitmap : mBitmaps) {
+            bitmap.recycle();
+        }
+        mBitmaps.clear();
+        mSize = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+            Locale.US,
+            "%d of %d bytes, %d of %d bitmaps reused (%d%%), %d bytes saved",
+            mSize,
+            mMaxBytes,
+            mReuseCount,
+            mRequestCount,
+            mRequestCount == 0 ? 0 : 100 * mReuseCount / mRequestCount,
+            mReusedBytes);
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        switch (config) {
+            case ARGB_8888:
+                return 4;
+            case ALPHA_8:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decoder of images at the size they are displayed.
+ * <p/>
+ * The dimensions of the image are decoded first, without its pixels, and the image is then
+ * subsampled by the largest power of two that keeps it at least as large as the requested
+ * size. The memory of a decoded image is thus proportional to the size it is displayed at,
+ * instead of the size of the original.
+ * <p/>
+ * With a {@link BitmapPool}, the images are decoded into the memory of bitmaps that are not
+ * used anymore when possible, instead of new allocations. The decoded images are mutable,
+ * so that their memory can be reused in turn.
+ */
+public class ImageDecoder {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final Bitmap.Config CONFIG = Bitmap.Config.ARGB_8888;
+
+    private final BitmapPool mPool;
+
+    /**
+     * Constructor of a decoder which allocates a new bitmap for each image
+     */
+    public ImageDecoder() {
+        this(null);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param pool the pool of the bitmaps to reuse {@link BitmapPool}, or null
+     */
+    public ImageDecoder(BitmapPool pool) {
+        mPool = pool;
+    }
+
+    /**
+     * Decode an image, subsampled for the requested size.
+     *
+     * @param stream    the encoded image, which is read entirely but not closed
+     * @param reqWidth  the width the image is displayed at, in pixels (0 for any width)
+     * @param reqHeight the height the image is displayed at, in pixels (0 for any height)
+     * @return the image {@link Bitmap}, or null if it cannot be decoded
+     * @throws IOException if the stream cannot be read
+     */
+    public Bitmap decode(InputStream stream, int reqWidth, int reqHeight) throws IOException {
+        if (stream == null || reqWidth < 0 || reqHeight < 0) {
+            throw new IllegalArgumentException();
+        }
+        return decode(readFully(stream), reqWidth, reqHeight);
+    }
+
+    /**
+     * Decode an image, subsampled for the requested size.
+     *
+     * @param data      the encoded image
+     * @param reqWidth  the width the image is displayed at, in pixels (0 for any width)
+     * @param reqHeight the height the image is displayed at, in pixels (0 for any height)
+     * @return the image {@link Bitmap}, or null if it cannot be decoded
+     */
+    public Bitmap decode(byte[] data, int reqWidth, int reqHeight) {
+        if (data == null || reqWidth < 0 || reqHeight < 0) {
+            throw new IllegalArgumentException();
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize =
+            sampleSizeFor(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inPreferredConfig = CONFIG;
+        options.inMutable = true;
+        if (mPool != null) {
+            int width = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+            int height = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+            options.inBitmap = mPool.get(width, height, CONFIG);
+        }
+        Bitmap reused = options.inBitmap;
+        Bitmap image;
+        try {
+            image = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            if (reused == null) {
+                throw e;
+            }
+            // the image cannot be decoded into the reused bitmap.
+            options.inBitmap = null;
+            mPool.put(reused);
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+        if (image == null && reused != null) {
+            // the data is corrupt: the reused bitmap was not taken.
+            mPool.put(reused);
+        }
+        return image;
+    }
+
+    /**
+     * Compute the subsampling of an image for the requested size: the largest power of two
+     * that keeps both dimensions at least as large as requested.
+     *
+     * @param width     the width of the image, in pixels
+     * @param height    the height of the image, in pixels
+     * @param reqWidth  the requested width, in pixels (0 for any width)
+     * @param reqHeight the requested height, in pixels (0 for any height)
+     * @return the sample size, 1 for the original size
+     */
+    public static int sampleSizeFor(int width, int height, int reqWidth, int reqHeight) {
+        if (width < 0 || height < 0 || reqWidth < 0 || reqHeight < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (reqWidth == 0 && reqHeight == 0) {
+            return 1;
+        }
+        int sampleSize = 1;
+        while ((reqWidth == 0 || width / (sampleSize * 2) >= reqWidth) &&
+               (reqHeight == 0 || height / (sampleSize * 2) >= reqHeight)) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Read an encoded image.
+     *
+     * @param stream the encoded image, which is read entirely but not closed
+     * @return the encoded image
+     * @throws IOException if the stream cannot be read
+     */
+    public static byte[] readFully(InputStream stream) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = stream.read(buffer)) != -1) {
+            data.write(buffer, 0, count);
+        }
+        return data.toByteArray();
+    }
+}
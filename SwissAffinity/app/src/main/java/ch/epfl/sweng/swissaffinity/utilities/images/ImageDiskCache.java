@@ -0,0 +1,333 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of encoded images in a directory, bounded by their size in bytes.
+ * <p/>
+ * The least recently used images are evicted first. Their order is kept in a journal,
+ * which is replayed when the cache is opened, and compacted when it grows too long.
+ * An image is written to a temporary file which is then renamed, so that a crash never
+ * leaves a partly written image in the cache.
+ * <p/>
+ * The directory is read lazily, on the first access to the cache.
+ */
+public class ImageDiskCache {
+
+    private static final String JOURNAL = "journal";
+    private static final String TEMPORARY = ".tmp";
+    private static final String PUT = "PUT";
+    private static final String READ = "READ";
+    private static final String DELETE = "DEL";
+    private static final String CHARSET = "UTF-8";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private final File mDirectory;
+    private final long mMaxBytes;
+    private final Map<String, Long> mEntries = new LinkedHashMap<>(0, 0.75f, true);
+    private long mSize;
+    private int mJournalLines;
+    private Writer mJournal;
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * Constructor of the class
+     *
+     * @param directory the directory of the cache, created if needed
+     * @param maxBytes  the maximum size of the images held, in bytes
+     */
+    public ImageDiskCache(File directory, long maxBytes) {
+        if (directory == null || maxBytes < 1) {
+            throw new IllegalArgumentException();
+        }
+        mDirectory = directory;
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Return an image of the cache
+     *
+     * @param key the key of the image (f.ex. its path on the server)
+     * @return the encoded image, or null if it is not in the cache
+     * @throws IOException if the cache cannot be read
+     */
+    public synchronized byte[] get(String key) throws IOException {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        open();
+        String name = nameOf(key);
+        if (mEntries.get(name) == null) {
+            ++mMissCount;
+            return null;
+        }
+        File file = new File(mDirectory, name);
+        if (!file.isFile()) {
+            remove(name);
+            ++mMissCount;
+            return null;
+        }
+        byte[] data = readFully(file);
+        appendJournal(READ, name, 0);
+        ++mHitCount;
+        return data;
+    }
+
+    /**
+     * Put an image in the cache, evicting the least recently used ones if needed.
+     * An image larger than the cache is not stored.
+     *
+     * @param key  the key of the image (f.ex. its path on the server)
+     * @param data the encoded image
+     * @throws IOException if the image cannot be written
+     */
+    public synchronized void put(String key, byte[] data) throws IOException {
+        if (key == null || data == null) {
+            throw new IllegalArgumentException();
+        }
+        if (data.length > mMaxBytes) {
+            return;
+        }
+        open();
+        String name = nameOf(key);
+        File temporary = new File(mDirectory, name + TEMPORARY);
+        FileOutputStream out = new FileOutputStream(temporary);
+        try {
+            out.write(data);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temporary.renameTo(new File(mDirectory, name))) {
+            temporary.delete();
+            throw new IOException("Cannot rename " + temporary);
+        }
+        Long previous = mEntries.put(name, (long) data.length);
+        mSize += data.length - (previous == null ? 0 : previous);
+        appendJournal(PUT, name, data.length);
+        trimToSize();
+    }
+
+    /**
+     * Getter for the size of the images held
+     *
+     * @return the size of the images held, in bytes
+     * @throws IOException if the cache cannot be read
+     */
+    public synchronized long size() throws IOException {
+        open();
+        return mSize;
+    }
+
+    /**
+     * Getter for the maximum size of the cache
+     *
+     * @return the maximum size of the images held, in bytes
+     */
+    public long maxSize() {
+        return mMaxBytes;
+    }
+
+    /**
+     * @return the number of images found in the cache
+     */
+    public synchronized int hitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return the number of images not found in the cache
+     */
+    public synchronized int missCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Close the journal. The cache is opened again on the next access.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        if (mJournal != null) {
+            try {
+                mJournal.close();
+            } finally {
+                mJournal = null;
+                mEntries.clear();
+                mSize = 0;
+            }
+        }
+    }
+
+    /**
+     * Read the journal, if it is not done yet.
+     */
+    private void open() throws IOException {
+        if (mJournal != null) {
+            return;
+        }
+        mEntries.clear();
+        mSize = 0;
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            throw new IOException("Cannot create " + mDirectory);
+        }
+        File journal = new File(mDirectory, JOURNAL);
+        if (journal.isFile()) {
+            replay(journal);
+        }
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (!name.equals(JOURNAL) && !mEntries.containsKey(name)) {
+                    file.delete(); // temporary or unknown file.
+                }
+            }
+        }
+        for (Iterator<Map.Entry<String, Long>> it = mEntries.entrySet().iterator();
+             it.hasNext(); ) {
+            Map.Entry<String, Long> entry = it.next();
+            if (!new File(mDirectory, entry.getKey()).isFile()) {
+                mSize -= entry.getValue();
+                it.remove();
+            }
+        }
+        compact();
+        trimToSize();
+    }
+
+    private void replay(File journal) throws IOException {
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(new FileInputStream(journal), CHARSET));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length != 3) {
+                    continue; // truncated by a crash.
+                }
+                String name = parts[1];
+                if (PUT.equals(parts[0])) {
+                    try {
+                        Long previous = mEntries.put(name, Long.parseLong(parts[2]));
+                        mSize += mEntries.get(name) - (previous == null ? 0 : previous);
+                    } catch (NumberFormatException e) {
+                        // truncated by a crash.
+                    }
+                } else if (READ.equals(parts[0])) {
+                    mEntries.get(name);
+                } else if (DELETE.equals(parts[0])) {
+                    Long previous = mEntries.remove(name);
+                    mSize -= previous == null ? 0 : previous;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Rewrite the journal with one line per image, in the order of use.
+     */
+    private void compact() throws IOException {
+        if (mJournal != null) {
+            mJournal.close();
+        }
+        File temporary = new File(mDirectory, JOURNAL + TEMPORARY);
+        Writer writer = new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(temporary), CHARSET));
+        try {
+            for (Map.Entry<String, Long> entry : mEntries.entrySet()) {
+                writer.write(PUT + " " + entry.getKey() + " " + entry.getValue() + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+        File journal = new File(mDirectory, JOURNAL);
+        if (!temporary.renameTo(journal)) {
+            throw new IOException("Cannot rename " + temporary);
+        }
+        mJournalLines = mEntries.size();
+        mJournal = new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(journal, true), CHARSET));
+    }
+
+    private void appendJournal(String operation, String name, long size) throws IOException {
+        mJournal.write(operation + " " + name + " " + size + "\n");
+        mJournal.flush();
+        if (++mJournalLines > COMPACTION_THRESHOLD + 2 * mEntries.size()) {
+            compact();
+        }
+    }
+
+    private void trimToSize() throws IOException {
+        Iterator<Map.Entry<String, Long>> it = mEntries.entrySet().iterator();
+        while (mSize > mMaxBytes && it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            String name = entry.getKey();
+            new File(mDirectory, name).delete();
+            mSize -= entry.getValue();
+            it.remove();
+            appendJournal(DELETE, name, 0);
+            it = mEntries.entrySet().iterator(); // the journal may have been compacted
+        }
+    }
+
+    private void remove(String name) throws IOException {
+        Long previous = mEntries.remove(name);
+        if (previous != null) {
+            mSize -= previous;
+            appendJournal(DELETE, name, 0);
+        }
+    }
+
+    /**
+     * @return the name of the file of a key: the hexadecimal SHA-1 of the key
+     */
+    private static String nameOf(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(CHARSET));
+            StringBuilder name = new StringBuilder(2 * digest.length);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream data = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                data.write(buffer, 0, count);
+            }
+            return data.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClient;
+import ch.epfl.sweng.swissaffinity.utilities.network.events.EventClientException;
+
+/**
+ * Loader of the images of the events and of the logos of their establishments on worker
+ * threads.
+ * <p/>
+ * The requests for the same image at the same size are coalesced into a single fetch,
+ * whose image is delivered to all of them. A fetch is cancelled when all its requests are
+ * cancelled. The image fetched is delivered to all the requests on the main thread,
+ * retained once for each request: it has to be released with {@link #release(Bitmap)}.
+ */
+public class ImageLoader {
+
+    private static final int THREADS = 2;
+
+    private final EventClient mEventClient;
+    private final Executor mDelivery;
+    private final ExecutorService mExecutor;
+    private final Map<String, Fetch> mFetches = new HashMap<>();
+
+    /**
+     * Callback of a request, called on the delivery thread.
+     */
+    public interface Callback {
+        /**
+         * @param image the image {@link Bitmap}, or null if it is not available
+         */
+        void onImage(Bitmap image);
+    }
+
+    /**
+     * Constructor of a loader delivering the images on the main thread
+     *
+     * @param eventClient the event client {@link EventClient}
+     */
+    public ImageLoader(EventClient eventClient) {
+        this(
+            eventClient, new Executor() {
+                private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+                @Override
+                public void execute(Runnable runnable) {
+                    mHandler.post(runnable);
+                }
+            });
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param eventClient the event client {@link EventClient}
+     * @param delivery    the executor of the callbacks
+     */
+    public ImageLoader(EventClient eventClient, Executor delivery) {
+        if (eventClient == null || delivery == null) {
+            throw new IllegalArgumentException();
+        }
+        mEventClient = eventClient;
+        mDelivery = delivery;
+        mExecutor = Executors.newFixedThreadPool(
+            THREADS, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ImageLoader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    }
+
+    /**
+     * Request the image of an event.
+     *
+     * @param imagePath the path of the image of the event
+     * @param width     the width the image is displayed at, in pixels (0 for any width)
+     * @param height    the height the image is displayed at, in pixels (0 for any height)
+     * @param callback  the callback receiving the image
+     * @return the request, to cancel it
+     */
+    public Request load(String imagePath, int width, int height, Callback callback) {
+        return load(false, imagePath, width, height, callback);
+    }
+
+    /**
+     * Request the logo of an establishment.
+     *
+     * @param logoPath the path of the logo of the establishment
+     * @param width    the width the logo is displayed at, in pixels (0 for any width)
+     * @param height   the height the logo is displayed at, in pixels (0 for any height)
+     * @param callback the callback receiving the logo
+     * @return the request, to cancel it
+     */
+    public Request loadLogo(String logoPath, int width, int height, Callback callback) {
+        return load(true, logoPath, width, height, callback);
+    }
+
+    private Request load(boolean logo, String path, int width, int height, Callback callback) {
+        if (path == null || width < 0 || height < 0 || callback == null) {
+            throw new IllegalArgumentException();
+        }
+        String key = (logo ? "logo:" : "image:") + path + "@" + width + "x" + height;
+        synchronized (mFetches) {
+            if (mExecutor.isShutdown()) {
+                throw new IllegalStateException("The loader is shut down.");
+            }
+            Fetch fetch = mFetches.get(key);
+            if (fetch == null) {
+                fetch = new Fetch(key, logo, path, width, height);
+                mFetches.put(key, fetch);
+                Request request = fetch.add(callback);
+                fetch.mFuture = mExecutor.submit(fetch);
+                return request;
+            }
+            return fetch.add(callback);
+        }
+    }
+
+    /**
+     * Release an image delivered by the loader, once it is not displayed anymore.<br>
+     * It goes to the client the loader fetched it with, which retained it.
+     *
+     * @param image the image {@link Bitmap}
+     */
+    public void release(Bitmap image) {
+        mEventClient.releaseImage(image);
+    }
+
+    /**
+     * Stop the worker threads once the fetches in progress are delivered. No image can be
+     * requested afterwards, but the images delivered can still be released.
+     */
+    public void shutdown() {
+        synchronized (mFetches) {
+            mExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return the number of fetches in progress
+     */
+    public int getFetchCount() {
+        synchronized (mFetches) {
+            return mFetches.size();
+        }
+    }
+
+    /**
+     * Request of an image, which can be cancelled.
+     */
+    public final class Request {
+
+        private final Fetch mFetch;
+        private final Callback mCallback;
+        private boolean mCancelled;
+
+        private Request(Fetch fetch, Callback callback) {
+            mFetch = fetch;
+            mCallback = callback;
+        }
+
+        /**
+         * Cancel the request: its callback is not called. The fetch of the image is
+         * cancelled if no other request waits for it.
+         */
+        public void cancel() {
+            synchronized (mFetches) {
+                if (mCancelled) {
+                    return;
+                }
+                mCancelled = true;
+                mFetch.mRequests.remove(this);
+                if (mFetch.mRequests.isEmpty() && mFetches.get(mFetch.mKey) == mFetch) {
+                    mFetches.remove(mFetch.mKey);
+                    if (mFetch.mFuture != null) {
+                        mFetch.mFuture.cancel(true);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return if the request was cancelled
+         */
+        public boolean isCancelled() {
+            synchronized (mFetches) {
+                return mCancelled;
+            }
+        }
+    }
+
+    /**
+     * Fetch of an image, shared by its requests.
+     */
+    private final class Fetch implements Runnable {
+
+        private final String mKey;
+        private final boolean mLogo;
+        private final String mPath;
+        private final int mWidth;
+        private final int mHeight;
+        private final List<Request> mRequests = new ArrayList<>();
+        private Future<?> mFuture;
+
+        private Fetch(String key, boolean logo, String path, int width, int height) {
+            mKey = key;
+            mLogo = logo;
+            mPath = path;
+            mWidth = width;
+            mHeight = height;
+        }
+
+        private Request add(Callback callback) {
+            Request request = new Request(this, callback);
+            mRequests.add(request);
+            return request;
+        }
+
+        @Override
+        public void run() {
+            Bitmap image = fetch();
+            final List<Request> requests;
+            synchronized (mFetches) {
+                if (mFetches.get(mKey) == this) {
+                    mFetches.remove(mKey);
+                }
+                requests = new ArrayList<>(mRequests);
+            }
+            if (requests.isEmpty()) {
+                if (image != null) {
+                    mEventClient.releaseImage(image);
+                }
+                return;
+            }
+            // the image fetched is retained once: each other request retains it again
+            if (image != null) {
+                for (int i = 1; i < requests.size(); ++i) {
+                    mEventClient.retainImage(image);
+                }
+            }
+            final Bitmap delivered = image;
+            mDelivery.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Request request : requests) {
+                            deliver(request, delivered);
+                        }
+                    }
+                });
+        }
+
+        private Bitmap fetch() {
+            try {
+                if (mLogo) {
+                    return mEventClient.logoFor(mPath, mWidth, mHeight);
+                }
+                return mEventClient.imageFor(mPath, mWidth, mHeight);
+            } catch (EventClientException e) {
+                return null; // no image.
+            }
+        }
+
+        private void deliver(Request request, Bitmap image) {
+            if (request.isCancelled()) {
+                if (image != null) {
+                    mEventClient.releaseImage(image);
+                }
+                return;
+            }
+            request.mCallback.onImage(image);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ch.epfl.sweng.swissaffinity.utilities.images;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import java.util.Locale;
+
+/**
+ * Cache of decoded images, bounded by the memory they hold in bytes.
+ * <p/>
+ * The least recently used images are evicted first. The hits, misses and evictions are
+ * counted by the {@link LruCache}, to tune the size of the cache.
+ * <p/>
+ * The images evicted or replaced are given to a {@link BitmapPool} if there is one.
+ */
+public class ImageMemoryCache extends LruCache<String, Bitmap> {
+
+    public static final int HEAP_FRACTION = 8;
+
+    private final BitmapPool mPool;
+
+    /**
+     * Constructor of the class
+     *
+     * @param maxBytes the maximum size of the images held, in bytes
+     * @param pool     the pool of the images removed {@link BitmapPool}, or null
+     */
+    public ImageMemoryCache(int maxBytes, BitmapPool pool) {
+        super(maxBytes);
+        mPool = pool;
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param maxBytes the maximum size of the images held, in bytes
+     */
+    public ImageMemoryCache(int maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Constructor of a cache sized to a fraction ({@link #HEAP_FRACTION}) of the heap
+     *
+     * @param pool the pool of the images removed {@link BitmapPool}, or null
+     */
+    public ImageMemoryCache(BitmapPool pool) {
+        this(
+            (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / HEAP_FRACTION),
+            pool);
+    }
+
+    /**
+     * Constructor of a cache sized to a fraction ({@link #HEAP_FRACTION}) of the heap
+     */
+    public ImageMemoryCache() {
+        this((BitmapPool) null);
+    }
+
+    @Override
+    protected int sizeOf(String key, Bitmap image) {
+        // an image decoded into a reused bitmap holds all the memory of the bitmap
+        return image.getAllocationByteCount();
+    }
+
+    @Override
+    protected void entryRemoved(boolean evicted, String key, Bitmap oldImage, Bitmap newImage) {
+        if (mPool != null && oldImage != newImage) {
+            mPool.put(oldImage);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        int requests = hitCount() + missCount();
+        return String.format(
+            Locale.US,
+            "%d of %d bytes, %d hits, %d misses (%d%% hits), %d evictions",
+            size(),
+            maxSize(),
+            hitCount(),
+            missCount(),
+            requests == 0 ? 0 : 100 * hitCount() / requests,
+            evictionCount());
+    }
+}
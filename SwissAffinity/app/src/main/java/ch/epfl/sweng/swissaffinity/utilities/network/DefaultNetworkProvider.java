@@ -3,26 +3,95 @@ package ch.epfl.sweng.swissaffinity.utilities.network;
 
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
  * The class that gets the HTTP connection from the server URL
  * and provides content access methods.
+ * <p/>
+ * Connections are kept alive in the platform connection pool: every response body
+ * (including error bodies) is read to the end and closed, so that the socket can be
+ * reused by the next request to the same server.
+ * <p/>
+ * The ETag and Last-Modified validators of the GET responses are remembered per URL,
+ * so that {@link #getContentIfModified(String)} can skip unchanged content.
+ * <p/>
+ * Compressed responses (gzip or deflate) are asked for and decoded on the fly; the
+ * bytes received and decoded are counted per URL in the {@link TransferStatistics}.
+ * <p/>
+ * The content can be opened as a {@link Reader} over the response, so that large
+ * bodies are consumed as they arrive instead of being copied in a String first.
  */
 public class DefaultNetworkProvider implements NetworkProvider {
 
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final long DEFAULT_KEEP_ALIVE_DURATION = 5 * 60 * 1000; // milliseconds
+
+    private static final int READ_TIMEOUT = 10000; // milliseconds
+    private static final int CONNECT_TIMEOUT = 15000; // milliseconds
+    private static final int BUFFER_SIZE = 4096;
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    private static final String DEFAULT_CHARSET = "UTF-8";
+
+    private static boolean POOL_CONFIGURED = false;
+
+    private final Map<String, Validator> mValidators = new ConcurrentHashMap<>();
+    private final TransferStatistics mTransferStatistics = new TransferStatistics();
+
+    /**
+     * Configure the connection pool, with the default settings.
+     *
+     * @see #configureConnectionPool(int, long)
+     */
+    public static void configureConnectionPool() {
+        configureConnectionPool(DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_DURATION);
+    }
+
+    /**
+     * Configure the connection pool.<br>
+     * The pool is shared by the whole process (through system properties) and its settings
+     * are read when it is first used: this has to be called once at the start of the
+     * application, before the first request. The calls after the first one are ignored.
+     *
+     * @param maxIdleConnections the maximum number of idle connections kept alive,
+     *                           0 to disable the connection reuse
+     * @param keepAliveDuration  the time an idle connection is kept alive (milliseconds)
+     * @return if the settings were applied
+     */
+    public static synchronized boolean configureConnectionPool(
+        int maxIdleConnections,
+        long keepAliveDuration)
+    {
+        if (maxIdleConnections < 0 || keepAliveDuration < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (POOL_CONFIGURED) {
+            return false;
+        }
+        System.setProperty("http.keepAlive", Boolean.toString(maxIdleConnections > 0));
+        System.setProperty("http.maxConnections", Integer.toString(maxIdleConnections));
+        System.setProperty("http.keepAliveDuration", Long.toString(keepAliveDuration));
+        POOL_CONFIGURED = true;
+        return true;
+    }
 
     @Override
     public HttpURLConnection getConnection(String serverURL) throws IOException {
@@ -31,8 +100,8 @@ public class DefaultNetworkProvider implements NetworkProvider {
         }
         URL url = new URL(serverURL);
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setReadTimeout(10000 /* milliseconds */);
-        conn.setConnectTimeout(15000 /* milliseconds */);
+        conn.setReadTimeout(READ_TIMEOUT);
+        conn.setConnectTimeout(CONNECT_TIMEOUT);
         return conn;
     }
 
@@ -41,15 +110,32 @@ public class DefaultNetworkProvider implements NetworkProvider {
         if (serverURL == null) {
             throw new IllegalArgumentException();
         }
-        HttpURLConnection conn = getConnection(serverURL);
-        conn.setDoInput(true);
-        conn.setRequestMethod("GET");
+        return readFully(get(serverURL, false));
+    }
 
-        conn.connect();
-        if (conn.getResponseCode() != HTTP_OK) {
-            throw new ConnectException();
+    @Override
+    public String getContentIfModified(String serverURL) throws IOException {
+        if (serverURL == null) {
+            throw new IllegalArgumentException();
         }
-        return fetchContent(conn.getInputStream());
+        Reader reader = get(serverURL, true);
+        return reader == null ? null : readFully(reader);
+    }
+
+    @Override
+    public Reader openContent(String serverURL) throws IOException {
+        if (serverURL == null) {
+            throw new IllegalArgumentException();
+        }
+        return get(serverURL, false);
+    }
+
+    @Override
+    public Reader openContentIfModified(String serverURL) throws IOException {
+        if (serverURL == null) {
+            throw new IllegalArgumentException();
+        }
+        return get(serverURL, true);
     }
 
     @Override
@@ -57,17 +143,23 @@ public class DefaultNetworkProvider implements NetworkProvider {
         if (serverURL == null || json == null) {
             throw new IllegalArgumentException();
         }
+        byte[] body = json.toString().getBytes("UTF-8");
         HttpURLConnection conn = getConnection(serverURL);
         conn.setDoInput(true);
         conn.setDoOutput(true);
+        conn.setFixedLengthStreamingMode(body.length);
         conn.setRequestProperty("Content-Type", "application/json");
+        conn.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
         conn.connect();
 
-        OutputStreamWriter out = new OutputStreamWriter(conn.getOutputStream());
-        out.write(json.toString());
-        out.flush();
-        out.close();
-        return fetchContent(handleResponseCode(conn));
+        OutputStream out = conn.getOutputStream();
+        try {
+            out.write(body);
+            out.flush();
+        } finally {
+            out.close();
+        }
+        return readFully(open(conn, handleResponseCode(conn), null));
     }
 
     @Override
@@ -78,29 +170,131 @@ public class DefaultNetworkProvider implements NetworkProvider {
         HttpURLConnection conn = getConnection(serverURL);
         conn.setDoOutput(true);
         conn.setRequestMethod("DELETE");
+        conn.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+        conn.connect();
+        return readFully(open(conn, handleResponseCode(conn), null));
+    }
+
+    /**
+     * Send a GET request. The validators of the response are remembered once its
+     * content has been read to the end.
+     *
+     * @param serverURL   the server address
+     * @param conditional if the validators of the last response have to be sent
+     * @return the content, or null if the server answered it was not modified
+     */
+    private Reader get(String serverURL, boolean conditional) throws IOException {
+        HttpURLConnection conn = getConnection(serverURL);
+        conn.setDoInput(true);
+        conn.setRequestMethod("GET");
+        conn.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+        Validator validator = mValidators.get(serverURL);
+        if (conditional && validator != null) {
+            validator.addTo(conn);
+        }
+
         conn.connect();
-        return fetchContent(handleResponseCode(conn));
+        int responseCode = conn.getResponseCode();
+        if (conditional && validator != null && responseCode == HTTP_NOT_MODIFIED) {
+            drain(conn.getInputStream());
+            return null;
+        }
+        if (responseCode != HTTP_OK) {
+            drain(conn.getErrorStream());
+            throw new ConnectException();
+        }
+        return open(conn, conn.getInputStream(), serverURL);
+    }
+
+    /**
+     * Getter for the statistics of the bytes received and decoded per URL
+     *
+     * @return the transfer statistics {@link TransferStatistics}
+     */
+    public TransferStatistics getTransferStatistics() {
+        return mTransferStatistics;
+    }
+
+    /**
+     * Open the content of the given input stream, decoded according to the
+     * content encoding and the charset of the response.
+     *
+     * @param conn      the connection
+     * @param stream    the stream of the response
+     * @param serverURL the URL whose validators are remembered, null for none
+     * @return the reader of the content, to be closed by the caller
+     */
+    private Reader open(HttpURLConnection conn, InputStream stream, String serverURL)
+        throws IOException
+    {
+        if (stream == null) {
+            throw new ConnectException();
+        }
+        CountingInputStream wire = new CountingInputStream(stream);
+        try {
+            ContentStream content = new ContentStream(conn, wire, decode(conn, wire), serverURL);
+            return new InputStreamReader(content, charsetOf(conn));
+        } catch (IOException e) {
+            drain(wire);
+            mTransferStatistics.record(conn.getURL().toString(), wire.getCount(), 0);
+            throw e;
+        }
     }
 
     /**
-     * Fetch the content of the given input stream
+     * Read the whole content of the given reader and close it.
      */
-    private String fetchContent(InputStream stream) throws IOException {
+    private static String readFully(Reader reader) throws IOException {
         StringBuilder stringBuilder = new StringBuilder();
-        BufferedReader reader = null;
+        char[] buffer = new char[BUFFER_SIZE];
         try {
-            reader = new BufferedReader(new InputStreamReader(stream));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line).append("\n");
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                stringBuilder.append(buffer, 0, count);
             }
-            return stringBuilder.toString();
         } finally {
-            if (reader != null) {
-                reader.close();
+            reader.close();
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * @param conn a connection with a response
+     * @return the charset given in the content type of the response, UTF-8 by default
+     */
+    private static String charsetOf(HttpURLConnection conn) {
+        String contentType = conn.getContentType();
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                parameter = parameter.trim();
+                if (parameter.regionMatches(true, 0, "charset=", 0, 8)) {
+                    return parameter.substring(8).replace("\"", "").trim();
+                }
             }
         }
+        return DEFAULT_CHARSET;
+    }
+
+    /**
+     * Decode the given stream according to the content encoding of the response.
+     *
+     * @param conn   the connection
+     * @param stream the stream as received
+     * @return the decoded stream
+     */
+    private static InputStream decode(HttpURLConnection conn, InputStream stream)
+        throws IOException
+    {
+        String encoding = conn.getContentEncoding();
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            return new GZIPInputStream(stream, BUFFER_SIZE);
+        }
+        if ("deflate".equalsIgnoreCase(encoding)) {
+            return new InflaterInputStream(stream);
+        }
+        return stream;
     }
+
     /*
     This method has a single responsibility: to handle response codes according
     to the server URL.
@@ -117,8 +311,182 @@ public class DefaultNetworkProvider implements NetworkProvider {
                 stream = conn.getErrorStream();
                 break;
             default:
+                drain(conn.getErrorStream());
                 throw new ConnectException();
         }
         return stream;
     }
-}
\ No newline at end of file
+
+    /**
+     * The decoded content of a response.<br>
+     * Closing it drains the connection so that it goes back to the pool and records
+     * the transfer statistics. If the content was read to the end, the validators of
+     * the response are remembered for the next conditional request.
+     */
+    private final class ContentStream extends FilterInputStream {
+        private final HttpURLConnection mConn;
+        private final CountingInputStream mWire;
+        private final String mServerURL;
+        private final Validator mValidator;
+        private long mDecodedBytes;
+        private boolean mEnded;
+        private boolean mClosed;
+
+        ContentStream(
+            HttpURLConnection conn,
+            CountingInputStream wire,
+            InputStream decoded,
+            String serverURL)
+        {
+            super(decoded);
+            mConn = conn;
+            mWire = wire;
+            mServerURL = serverURL;
+            mValidator = serverURL == null ? null : Validator.from(conn);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                mEnded = true;
+            } else {
+                ++mDecodedBytes;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            int read = super.read(buffer, offset, count);
+            if (read == -1) {
+                mEnded = true;
+            } else {
+                mDecodedBytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            mDecodedBytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+            try {
+                mEnded = mEnded || onlyWhitespaceLeft();
+                drain(mWire);
+                super.close();
+            } finally {
+                mTransferStatistics.record(
+                    mConn.getURL().toString(), mWire.getCount(), mDecodedBytes);
+                if (mEnded && mServerURL != null) {
+                    if (mValidator == null) {
+                        mValidators.remove(mServerURL);
+                    } else {
+                        mValidators.put(mServerURL, mValidator);
+                    }
+                }
+            }
+        }
+
+        /**
+         * A parser can stop right after the end of the document: the content counts as
+         * read to the end if nothing but whitespace is left.
+         */
+        private boolean onlyWhitespaceLeft() {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try {
+                int count;
+                while ((count = in.read(buffer)) != -1) {
+                    for (int i = 0; i < count; ++i) {
+                        if (!Character.isWhitespace(buffer[i])) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The cache validators (ETag and Last-Modified) of a response.
+     */
+    private static final class Validator {
+        private final String mETag;
+        private final String mLastModified;
+
+        private Validator(String eTag, String lastModified) {
+            mETag = eTag;
+            mLastModified = lastModified;
+        }
+
+        /**
+         * @param conn a connection with a response
+         * @return the validators of the response, or null if there is none
+         */
+        static Validator from(HttpURLConnection conn) {
+            String eTag = conn.getHeaderField("ETag");
+            String lastModified = conn.getHeaderField("Last-Modified");
+            if (eTag == null && lastModified == null) {
+                return null;
+            }
+            return new Validator(eTag, lastModified);
+        }
+
+        /**
+         * Make the request conditional on these validators.
+         *
+         * @param conn a connection not yet connected
+         */
+        void addTo(HttpURLConnection conn) {
+            if (mETag != null) {
+                conn.setRequestProperty("If-None-Match", mETag);
+            }
+            if (mLastModified != null) {
+                conn.setRequestProperty("If-Modified-Since", mLastModified);
+            }
+        }
+    }
+
+    /**
+     * Read what is left in the given stream and close it, so that the connection
+     * goes back to the pool instead of being discarded.
+     *
+     * @param stream the stream to drain, can be null
+     */
+    static void drain(InputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            while (stream.read(buffer) != -1) {
+                // discard
+            }
+        } catch (IOException e) {
+            // the connection will not be reused.
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // nothing to do.
+            }
+        }
+    }
+}
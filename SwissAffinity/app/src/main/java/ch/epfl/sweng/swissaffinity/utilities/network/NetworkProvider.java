@@ -3,6 +3,7 @@ package ch.epfl.sweng.swissaffinity.utilities.network;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
@@ -33,6 +34,38 @@ public interface NetworkProvider {
      */
     String getContent(String serverURL) throws IOException;
 
+    /**
+     * Get the content of a HTTP GET request to the provided server URL, only if it
+     * changed since the last request to the same URL (conditional GET).
+     *
+     * @param serverURL the server address
+     * @return the content of the request, or null if it was not modified
+     * @throws IOException if no success with the request.
+     */
+    String getContentIfModified(String serverURL) throws IOException;
+
+    /**
+     * Open the content of a HTTP GET request to the provided server URL as a stream
+     * of characters, which is read as it arrives instead of being kept in memory.
+     * The caller has to close the reader, which releases the connection.
+     *
+     * @param serverURL the server address
+     * @return the content of the request
+     * @throws IOException if no success with the request.
+     */
+    Reader openContent(String serverURL) throws IOException;
+
+    /**
+     * Open the content of a HTTP GET request to the provided server URL as a stream
+     * of characters, only if it changed since the last request to the same URL
+     * (conditional GET). The caller has to close the reader.
+     *
+     * @param serverURL the server address
+     * @return the content of the request, or null if it was not modified
+     * @throws IOException if no success with the request.
+     */
+    Reader openContentIfModified(String serverURL) throws IOException;
+
     /**
      * Post the content to a HTTP POST request to the provided server URL.
      *
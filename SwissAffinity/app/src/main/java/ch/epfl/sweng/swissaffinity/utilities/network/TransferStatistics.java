@@ -0,0 +1,75 @@
+package ch.epfl.sweng.swissaffinity.utilities.network;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts the bytes of the responses per URL, as received on the wire (possibly
+ * compressed) and once decoded.
+ */
+public class TransferStatistics {
+
+    private final Map<String, long[]> mCounts = new HashMap<>();
+
+    /**
+     * Record a response.
+     *
+     * @param url          the URL of the request
+     * @param wireBytes    the number of bytes received
+     * @param decodedBytes the number of bytes once decoded
+     */
+    public synchronized void record(String url, long wireBytes, long decodedBytes) {
+        if (url == null || wireBytes < 0 || decodedBytes < 0) {
+            throw new IllegalArgumentException();
+        }
+        long[] counts = mCounts.get(url);
+        if (counts == null) {
+            counts = new long[2];
+            mCounts.put(url, counts);
+        }
+        counts[0] += wireBytes;
+        counts[1] += decodedBytes;
+    }
+
+    /**
+     * @param url the URL of the requests
+     * @return the number of bytes received for the URL
+     */
+    public synchronized long getWireBytes(String url) {
+        long[] counts = mCounts.get(url);
+        return counts == null ? 0 : counts[0];
+    }
+
+    /**
+     * @param url the URL of the requests
+     * @return the number of decoded bytes for the URL
+     */
+    public synchronized long getDecodedBytes(String url) {
+        long[] counts = mCounts.get(url);
+        return counts == null ? 0 : counts[1];
+    }
+
+    /**
+     * Forget all the recorded responses.
+     */
+    public synchronized void reset() {
+        mCounts.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, long[]> entry : mCounts.entrySet()) {
+            long[] counts = entry.getValue();
+            builder.append(
+                String.format(
+                    Locale.US,
+                    "%s: %d bytes received, %d bytes decoded\n",
+                    entry.getKey(),
+                    counts[0],
+                    counts[1]));
+        }
+        return builder.toString();
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.List;
 
 import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
 import ch.epfl.sweng.swissaffinity.users.Registration;
 import ch.epfl.sweng.swissaffinity.utilities.Location;
 
@@ -22,6 +23,30 @@ public interface EventClient {
      */
     List<Event> fetchAll() throws EventClientException;
 
+    /**
+     * Fetch all the events, only if they changed since the last fetch.
+     *
+     * @return the list of all the events, or null if they did not change
+     * @throws EventClientException
+     */
+    List<Event> fetchAllIfModified() throws EventClientException;
+
+    /**
+     * Fetch the summaries of all the events, with only the attributes shown in the lists
+     *
+     * @return the list of the summaries of all the events
+     * @throws EventClientException
+     */
+    List<EventSummary> fetchSummaries() throws EventClientException;
+
+    /**
+     * Fetch the summaries of all the events, only if they changed since the last fetch.
+     *
+     * @return the list of the summaries of all the events, or null if they did not change
+     * @throws EventClientException
+     */
+    List<EventSummary> fetchSummariesIfModified() throws EventClientException;
+
     /**
      * Fetch the events a user has registered.
      *
@@ -31,6 +56,15 @@ public interface EventClient {
      */
     List<Registration> fetchForUser(String userName) throws EventClientException;
 
+    /**
+     * Fetch the events a user has registered, only if they changed since the last fetch.
+     *
+     * @param userName the user name
+     * @return all the registrations for a user, or null if they did not change
+     * @throws EventClientException
+     */
+    List<Registration> fetchForUserIfModified(String userName) throws EventClientException;
+
     /**
      * Fetch the events for a given collection of locations
      *
@@ -40,6 +74,16 @@ public interface EventClient {
      */
     List<Event> fetchAllFor(Collection<Location> locations) throws EventClientException;
 
+    /**
+     * Fetch the summaries of the events for a given collection of locations
+     *
+     * @param locations a collection of locations
+     * @return the summaries of all the events according the given locations
+     * @throws EventClientException
+     */
+    List<EventSummary> fetchSummariesFor(Collection<Location> locations)
+        throws EventClientException;
+
     /**
      * Fetch a single event given its ID
      *
@@ -57,4 +101,43 @@ public interface EventClient {
      * @throws EventClientException
      */
     Bitmap imageFor(String imagePath) throws EventClientException;
+
+    /**
+     * Fetch the image for the given event, decoded for the size it is displayed at
+     *
+     * @param imagePath the path of the image of the event
+     * @param width     the width the image is displayed at, in pixels (0 for any width)
+     * @param height    the height the image is displayed at, in pixels (0 for any height)
+     * @return the image {@link Bitmap}, at least as large as requested unless the original
+     * is smaller
+     * @throws EventClientException
+     */
+    Bitmap imageFor(String imagePath, int width, int height) throws EventClientException;
+
+    /**
+     * Fetch the logo of an establishment, decoded for the size it is displayed at
+     *
+     * @param logoPath the path of the logo of the establishment
+     * @param width    the width the logo is displayed at, in pixels (0 for any width)
+     * @param height   the height the logo is displayed at, in pixels (0 for any height)
+     * @return the logo {@link Bitmap}
+     * @throws EventClientException
+     */
+    Bitmap logoFor(String logoPath, int width, int height) throws EventClientException;
+
+    /**
+     * Retain an image or a logo fetched by the client once more, for another view that
+     * displays it. Each retain has to be matched by a {@link #releaseImage(Bitmap)}.
+     *
+     * @param image the image {@link Bitmap}, currently retained
+     */
+    void retainImage(Bitmap image);
+
+    /**
+     * Release an image or a logo fetched by the client, once it is not displayed anymore,
+     * so that its memory can be reused
+     *
+     * @param image the image {@link Bitmap}
+     */
+    void releaseImage(Bitmap image);
 }
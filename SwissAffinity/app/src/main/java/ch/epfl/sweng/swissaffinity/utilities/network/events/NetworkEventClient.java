@@ -1,43 +1,97 @@
 package ch.epfl.sweng.swissaffinity.utilities.network.events;
 
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
 import ch.epfl.sweng.swissaffinity.users.Registration;
 import ch.epfl.sweng.swissaffinity.utilities.Location;
+import ch.epfl.sweng.swissaffinity.utilities.images.BitmapPool;
+import ch.epfl.sweng.swissaffinity.utilities.images.ImageDecoder;
+import ch.epfl.sweng.swissaffinity.utilities.images.ImageDiskCache;
+import ch.epfl.sweng.swissaffinity.utilities.images.ImageMemoryCache;
 import ch.epfl.sweng.swissaffinity.utilities.network.NetworkProvider;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ChunkedEventParser;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.JSONTreeReader;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.Parser;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserFactory;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.events.EventStreamDecoder;
 
+import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.DATE_BEGIN;
 import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.EVENT;
 import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.ID;
+import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.LOCATION;
+import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.NAME;
 
 /**
  * Representation of an event client with network.
+ * <p/>
+ * The lists of events and registrations are decoded from the response stream by the
+ * {@link EventStreamDecoder}; the JSON parsers remain available as a fallback.
+ * Large lists of events can instead be parsed in parallel by a {@link ChunkedEventParser}.
+ * <p/>
+ * The summaries of the events are requested with a projection on their attributes
+ * ("?fields=..."), and are always decoded from the stream: a server that ignores the
+ * projection sends the complete events, whose other attributes are skipped.
+ * <p/>
+ * The events of several locations are fetched concurrently on a pool of the client, with a
+ * bounded number of requests in flight. Its threads are created on first use and stop when
+ * they are idle. An event listed under several locations is returned once.
+ * <p/>
+ * The decoded images are kept in an {@link ImageMemoryCache}, by path and size, and the
+ * downloaded images in an {@link ImageDiskCache} if there is one. The images are decoded
+ * into the memory of the images evicted from the memory cache, through a {@link BitmapPool}:
+ * an image returned is retained until it is released with {@link #releaseImage(Bitmap)}.
  */
 public class NetworkEventClient implements EventClient {
 
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    private static final long IDLE_THREAD_TIMEOUT_MS = 30000;
     private static final String EVENTS = "/api/events";
     private static final String USERS = "/api/users/";
     private static final String REGISTRATIONS = "/registrations";
     private static final String LOCATIONS = "/api/locations/";
     private static final String IMAGES = "/images/events/";
+    private static final String LOGOS = "/images/establishments/";
+    private static final String SUMMARY_FIELDS =
+        "?fields=" + ID.get() + "," + NAME.get() + "," + LOCATION.get() + "," + DATE_BEGIN.get();
 
     private final String mServerUrl;
     private final NetworkProvider mNetworkProvider;
+    private final EventStreamDecoder mDecoder = new EventStreamDecoder();
+    private final BitmapPool mBitmapPool = new BitmapPool();
+    private final ImageDecoder mImageDecoder = new ImageDecoder(mBitmapPool);
+    private final Object mFetchExecutorLock = new Object();
+    private boolean mStreamDecoding = true;
+    private ChunkedEventParser mChunkedParser;
+    private volatile int mMaxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private ThreadPoolExecutor mFetchExecutor; // guarded by mFetchExecutorLock
+    private volatile ImageMemoryCache mImageCache = new ImageMemoryCache(mBitmapPool);
+    private volatile ImageDiskCache mDiskCache;
 
     /**
      * Constructor of the class
@@ -53,6 +107,92 @@ public class NetworkEventClient implements EventClient {
         mNetworkProvider = networkProvider;
     }
 
+    /**
+     * Setter for the decoding of the lists, with the stream decoder or
+     * with the JSON parsers (FOR TESTING PURPOSE ONLY)
+     *
+     * @param streamDecoding true to use the {@link EventStreamDecoder}
+     */
+    public void setStreamDecoding(boolean streamDecoding) {
+        mStreamDecoding = streamDecoding;
+    }
+
+    /**
+     * Setter for the parsing of the lists of events in chunks on worker threads,
+     * instead of the stream decoder. It suits large catalogues on multi-core devices.<br>
+     * It is not set by default: the lists of the application are built from the event
+     * summaries, which are always stream decoded.
+     *
+     * @param chunkedParser the chunked parser {@link ChunkedEventParser},
+     *                      or null to decode the lists on the calling thread
+     */
+    public void setChunkedParser(ChunkedEventParser chunkedParser) {
+        mChunkedParser = chunkedParser;
+    }
+
+    /**
+     * Setter for the maximum number of requests in flight when the events of several
+     * locations are fetched
+     *
+     * @param maxInFlight the maximum number of concurrent requests, 1 to fetch in sequence
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (mFetchExecutorLock) {
+            mMaxInFlight = maxInFlight;
+            if (mFetchExecutor != null) {
+                // the core size cannot exceed the maximum size, at any time
+                if (maxInFlight > mFetchExecutor.getMaximumPoolSize()) {
+                    mFetchExecutor.setMaximumPoolSize(maxInFlight);
+                    mFetchExecutor.setCorePoolSize(maxInFlight);
+                } else {
+                    mFetchExecutor.setCorePoolSize(maxInFlight);
+                    mFetchExecutor.setMaximumPoolSize(maxInFlight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter for the cache of the images
+     *
+     * @return the cache of the images {@link ImageMemoryCache}, or null if there is none
+     */
+    public ImageMemoryCache getImageCache() {
+        return mImageCache;
+    }
+
+    /**
+     * Getter for the pool of the bitmaps reused to decode the images
+     *
+     * @return the pool of the bitmaps {@link BitmapPool}
+     */
+    public BitmapPool getBitmapPool() {
+        return mBitmapPool;
+    }
+
+    /**
+     * Setter for the cache of the images
+     *
+     * @param imageCache the cache of the images {@link ImageMemoryCache},
+     *                   or null to download the images at each request
+     */
+    public void setImageCache(ImageMemoryCache imageCache) {
+        mImageCache = imageCache;
+    }
+
+    /**
+     * Setter for the cache of the downloaded images
+     *
+     * @param diskCache the cache of the downloaded images {@link ImageDiskCache},
+     *                  or null to download the images again when they are not in memory
+     */
+    public void setDiskCache(ImageDiskCache diskCache) {
+        mDiskCache = diskCache;
+    }
+
     @Override
     public List<Event> fetchAll() throws EventClientException {
         List<Event> events = new ArrayList<>();
@@ -60,6 +200,44 @@ public class NetworkEventClient implements EventClient {
         return events;
     }
 
+    @Override
+    public List<Event> fetchAllIfModified() throws EventClientException {
+        try {
+            Reader content = mNetworkProvider.openContentIfModified(mServerUrl + EVENTS);
+            if (content == null) {
+                return null;
+            }
+            List<Event> events = new ArrayList<>();
+            parseEvents(events, content);
+            return events;
+        } catch (ParserException | JSONException | IOException e) {
+            throw new EventClientException(e);
+        }
+    }
+
+    @Override
+    public List<EventSummary> fetchSummaries() throws EventClientException {
+        List<EventSummary> summaries = new ArrayList<>();
+        fetchSummaries(summaries, EVENTS);
+        return summaries;
+    }
+
+    @Override
+    public List<EventSummary> fetchSummariesIfModified() throws EventClientException {
+        try {
+            String url = mServerUrl + EVENTS + SUMMARY_FIELDS;
+            Reader content = mNetworkProvider.openContentIfModified(url);
+            if (content == null) {
+                return null;
+            }
+            List<EventSummary> summaries = new ArrayList<>();
+            parseSummaries(summaries, content);
+            return summaries;
+        } catch (ParserException | IOException e) {
+            throw new EventClientException(e);
+        }
+    }
+
     @Override
     public List<Registration> fetchForUser(String userName)
         throws EventClientException
@@ -67,38 +245,85 @@ public class NetworkEventClient implements EventClient {
         List<Registration> registrations = new ArrayList<>();
         try {
             String url = mServerUrl + USERS + userName + REGISTRATIONS;
-            String content = mNetworkProvider.getContent(url);
-            if (content != null) {
-                JSONArray jsonRegistrations = new JSONArray(content);
-                for (int i = 0; i < jsonRegistrations.length(); ++i) {
-                    JSONObject jsonObject = jsonRegistrations.getJSONObject(i);
-                    int id = jsonObject.getInt(ID.get());
-                    SafeJSONObject jsonEvent =
-                        new SafeJSONObject(jsonObject.getJSONObject(EVENT.get()));
-                    Parser<? extends Event> parser = ParserFactory.parserFor(jsonEvent);
-                    Event event = parser.parse(jsonEvent);
-                    registrations.add(new Registration(id, event));
-                }
-            }
+            parseRegistrations(registrations, mNetworkProvider.openContent(url));
         } catch (JSONException | IOException | ParserException e) {
             throw new EventClientException(e);
         }
         return registrations;
     }
 
+    @Override
+    public List<Registration> fetchForUserIfModified(String userName)
+        throws EventClientException
+    {
+        try {
+            String url = mServerUrl + USERS + userName + REGISTRATIONS;
+            Reader content = mNetworkProvider.openContentIfModified(url);
+            if (content == null) {
+                return null;
+            }
+            List<Registration> registrations = new ArrayList<>();
+            parseRegistrations(registrations, content);
+            return registrations;
+        } catch (JSONException | IOException | ParserException e) {
+            throw new EventClientException(e);
+        }
+    }
+
     @Override
     public List<Event> fetchAllFor(Collection<Location> locations) throws EventClientException {
         if (locations == null) {
             throw new IllegalArgumentException();
         }
+        List<List<Event>> perLocation = fetchPerLocation(
+            locations, new LocationFetch<Event>() {
+                @Override
+                public void fetch(List<Event> results, String apiUrl)
+                    throws EventClientException
+                {
+                    fetchEvents(results, apiUrl);
+                }
+            });
         List<Event> events = new ArrayList<>();
-        for (Location location : locations) {
-            int id = location.getId();
-            fetchEvents(events, LOCATIONS + id + EVENTS);
+        Set<Integer> ids = new HashSet<>();
+        for (List<Event> results : perLocation) {
+            for (Event event : results) {
+                if (ids.add(event.getId())) {
+                    events.add(event);
+                }
+            }
         }
         return events;
     }
 
+    @Override
+    public List<EventSummary> fetchSummariesFor(Collection<Location> locations)
+        throws EventClientException
+    {
+        if (locations == null) {
+            throw new IllegalArgumentException();
+        }
+        List<List<EventSummary>> perLocation = fetchPerLocation(
+            locations, new LocationFetch<EventSummary>() {
+                @Override
+                public void fetch(List<EventSummary> results, String apiUrl)
+                    throws EventClientException
+                {
+                    fetchSummaries(results, apiUrl);
+                }
+            });
+        List<EventSummary> summaries = new ArrayList<>();
+        Set<Integer> ids = new HashSet<>();
+        for (List<EventSummary> results : perLocation) {
+            for (EventSummary summary : results) {
+                if (ids.add(summary.getId())) {
+                    summaries.add(summary);
+                }
+            }
+        }
+        return summaries;
+    }
+
     @Override
     public Event fetchBy(int id) throws EventClientException {
         if (id < 0) {
@@ -117,36 +342,303 @@ public class NetworkEventClient implements EventClient {
 
     @Override
     public Bitmap imageFor(String imagePath) throws EventClientException {
-        if (imagePath == null) {
+        return imageFor(imagePath, 0, 0);
+    }
+
+    @Override
+    public Bitmap imageFor(String imagePath, int width, int height)
+        throws EventClientException
+    {
+        if (imagePath == null || width < 0 || height < 0) {
+            throw new IllegalArgumentException();
+        }
+        return image(IMAGES + imagePath, width, height);
+    }
+
+    @Override
+    public Bitmap logoFor(String logoPath, int width, int height) throws EventClientException {
+        if (logoPath == null || width < 0 || height < 0) {
             throw new IllegalArgumentException();
         }
+        return image(LOGOS + logoPath, width, height);
+    }
+
+    @Override
+    public void retainImage(Bitmap image) {
+        if (image == null) {
+            throw new IllegalArgumentException();
+        }
+        mBitmapPool.retain(image);
+    }
+
+    @Override
+    public void releaseImage(Bitmap image) {
+        if (image == null) {
+            throw new IllegalArgumentException();
+        }
+        mBitmapPool.release(image);
+    }
+
+    /**
+     * Return an image, from the memory cache, the disk cache or the server.
+     *
+     * @param path   the path of the image on the server
+     * @param width  the width the image is displayed at, in pixels (0 for any width)
+     * @param height the height the image is displayed at, in pixels (0 for any height)
+     * @return the image {@link Bitmap}, or null if there is none
+     * @throws EventClientException if the image cannot be downloaded
+     */
+    private Bitmap image(String path, int width, int height) throws EventClientException {
+        ImageMemoryCache imageCache = mImageCache;
+        String key = path + "@" + width + "x" + height;
         Bitmap image = null;
+        if (imageCache != null) {
+            // the image must not be given to the pool between the lookup and the retain
+            synchronized (mBitmapPool) {
+                image = imageCache.get(key);
+                if (image != null) {
+                    mBitmapPool.retain(image);
+                    return image;
+                }
+            }
+        }
+        ImageDiskCache diskCache = mDiskCache;
+        byte[] data = null;
+        if (diskCache != null) {
+            try {
+                data = diskCache.get(path);
+            } catch (IOException e) {
+                // cache not available.
+            }
+        }
+        if (data == null) {
+            data = download(path);
+            if (data != null && diskCache != null) {
+                try {
+                    diskCache.put(path, data);
+                } catch (IOException e) {
+                    // cache not available.
+                }
+            }
+        }
+        if (data != null) {
+            image = mImageDecoder.decode(data, width, height);
+        }
+        if (image != null) {
+            mBitmapPool.retain(image);
+            if (imageCache != null) {
+                imageCache.put(key, image);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * @return the encoded image at the given path, or null if there is none
+     */
+    private byte[] download(String path) throws EventClientException {
         try {
-            HttpURLConnection connection =
-                mNetworkProvider.getConnection(mServerUrl + IMAGES + imagePath);
-            if (connection != null) {
-                image = BitmapFactory.decodeStream(connection.getInputStream());
+            HttpURLConnection connection = mNetworkProvider.getConnection(mServerUrl + path);
+            if (connection == null) {
+                return null;
+            }
+            InputStream stream = connection.getInputStream();
+            try {
+                return ImageDecoder.readFully(stream);
+            } finally {
+                stream.close();
             }
         } catch (IOException e) {
             throw new EventClientException(e);
         }
-        return image;
     }
 
-    private void fetchEvents(List<Event> events, String apiUrl) throws EventClientException {
+    /**
+     * Fetch the results of each location, with a bounded number of concurrent
+     * requests. When several fetches fail, the exception of the first location is thrown.
+     *
+     * @param locations the locations
+     * @param fetch     the fetch of the results of a location
+     * @return the results of each location, in the order of the locations
+     * @throws EventClientException if the results of a location cannot be fetched
+     */
+    private <T> List<List<T>> fetchPerLocation(
+        Collection<Location> locations,
+        final LocationFetch<T> fetch) throws EventClientException
+    {
+        List<List<T>> perLocation = new ArrayList<>(locations.size());
+        int threads = Math.min(mMaxInFlight, locations.size());
+        if (threads <= 1) {
+            for (Location location : locations) {
+                List<T> results = new ArrayList<>();
+                fetch.fetch(results, LOCATIONS + location.getId() + EVENTS);
+                perLocation.add(results);
+            }
+            return perLocation;
+        }
+        ThreadPoolExecutor executor = fetchExecutor();
+        List<Future<List<T>>> futures = new ArrayList<>(locations.size());
         try {
-            String content = mNetworkProvider.getContent(mServerUrl + apiUrl);
-            if (content != null) {
-                JSONArray jsonEvents = new JSONArray(content);
-                for (int i = 0; i < jsonEvents.length(); ++i) {
-                    SafeJSONObject jsonObject = new SafeJSONObject(jsonEvents.getJSONObject(i));
-                    Parser<? extends Event> parser = ParserFactory.parserFor(jsonObject);
-                    Event event = parser.parse(jsonObject);
-                    events.add(event);
-                }
+            for (Location location : locations) {
+                final String apiUrl = LOCATIONS + location.getId() + EVENTS;
+                futures.add(
+                    executor.submit(
+                        new Callable<List<T>>() {
+                            @Override
+                            public List<T> call() throws EventClientException {
+                                List<T> results = new ArrayList<>();
+                                fetch.fetch(results, apiUrl);
+                                return results;
+                            }
+                        }));
+            }
+            for (Future<List<T>> future : futures) {
+                perLocation.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventClientException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof EventClientException) {
+                throw (EventClientException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new EventClientException(cause);
+        } finally {
+            for (Future<List<T>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return perLocation;
+    }
+
+    /**
+     * @return the pool of the fetches per location, created on first use
+     */
+    private ThreadPoolExecutor fetchExecutor() {
+        synchronized (mFetchExecutorLock) {
+            if (mFetchExecutor == null) {
+                mFetchExecutor = new ThreadPoolExecutor(
+                    mMaxInFlight,
+                    mMaxInFlight,
+                    IDLE_THREAD_TIMEOUT_MS,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "NetworkEventClient");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                mFetchExecutor.allowCoreThreadTimeOut(true);
             }
+            return mFetchExecutor;
+        }
+    }
+
+    private void fetchEvents(List<Event> events, String apiUrl) throws EventClientException {
+        try {
+            parseEvents(events, mNetworkProvider.openContent(mServerUrl + apiUrl));
         } catch (ParserException | JSONException | IOException e) {
             throw new EventClientException(e);
         }
     }
+
+    private void fetchSummaries(List<EventSummary> summaries, String apiUrl)
+        throws EventClientException
+    {
+        try {
+            String url = mServerUrl + apiUrl + SUMMARY_FIELDS;
+            parseSummaries(summaries, mNetworkProvider.openContent(url));
+        } catch (ParserException | IOException e) {
+            throw new EventClientException(e);
+        }
+    }
+
+    /**
+     * Parse the summaries of the given content, which is closed afterwards.
+     */
+    private void parseSummaries(List<EventSummary> summaries, Reader content)
+        throws IOException, ParserException
+    {
+        if (content == null) {
+            return;
+        }
+        try {
+            mDecoder.decodeSummaries(content, summaries);
+        } finally {
+            content.close();
+        }
+    }
+
+    /**
+     * Parse the events of the given content, which is closed afterwards.
+     */
+    private void parseEvents(List<Event> events, Reader content)
+        throws IOException, JSONException, ParserException
+    {
+        if (content == null) {
+            return;
+        }
+        try {
+            if (mChunkedParser != null) {
+                events.addAll(mChunkedParser.parse(JSONTreeReader.readArray(content)));
+                return;
+            }
+            if (mStreamDecoding) {
+                mDecoder.decodeEvents(content, events);
+                return;
+            }
+            JSONArray jsonEvents = JSONTreeReader.readArray(content);
+            for (int i = 0; i < jsonEvents.length(); ++i) {
+                SafeJSONObject jsonObject = new SafeJSONObject(jsonEvents.getJSONObject(i));
+                Parser<? extends Event> parser = ParserFactory.parserFor(jsonObject);
+                Event event = parser.parse(jsonObject);
+                events.add(event);
+            }
+        } finally {
+            content.close();
+        }
+    }
+
+    /**
+     * Parse the registrations of the given content, which is closed afterwards.
+     */
+    private void parseRegistrations(List<Registration> registrations, Reader content)
+        throws IOException, JSONException, ParserException
+    {
+        if (content == null) {
+            return;
+        }
+        try {
+            if (mStreamDecoding) {
+                mDecoder.decodeRegistrations(content, registrations);
+                return;
+            }
+            JSONArray jsonRegistrations = JSONTreeReader.readArray(content);
+            for (int i = 0; i < jsonRegistrations.length(); ++i) {
+                JSONObject jsonObject = jsonRegistrations.getJSONObject(i);
+                int id = jsonObject.getInt(ID.get());
+                SafeJSONObject jsonEvent =
+                    new SafeJSONObject(jsonObject.getJSONObject(EVENT.get()));
+                Parser<? extends Event> parser = ParserFactory.parserFor(jsonEvent);
+                Event event = parser.parse(jsonEvent);
+                registrations.add(new Registration(id, event));
+            }
+        } finally {
+            content.close();
+        }
+    }
+
+    /**
+     * Fetch of the results of a location.
+     */
+    private interface LocationFetch<T> {
+        void fetch(List<T> results, String apiUrl) throws EventClientException;
+    }
 }
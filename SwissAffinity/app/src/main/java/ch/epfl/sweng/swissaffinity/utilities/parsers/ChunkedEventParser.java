@@ -0,0 +1,140 @@
+package ch.epfl.sweng.swissaffinity.utilities.parsers;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import ch.epfl.sweng.swissaffinity.events.Event;
+
+/**
+ * Parser of arrays of events, which splits them into chunks parsed on a bounded pool
+ * of worker threads.
+ * <p/>
+ * The events are returned in the order of the array. When several events cannot be
+ * parsed, the exception of the first one in the array is thrown, whatever the order
+ * in which the chunks were parsed.
+ */
+public class ChunkedEventParser {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final ExecutorService mExecutor;
+    private final int mThreads;
+    private final int mChunkSize;
+
+    /**
+     * Constructor of the class
+     *
+     * @param threads   the number of worker threads
+     * @param chunkSize the number of events parsed by a worker at once
+     */
+    public ChunkedEventParser(int threads, int chunkSize) {
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        mThreads = threads;
+        mChunkSize = chunkSize;
+        mExecutor = Executors.newFixedThreadPool(
+            threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ChunkedEventParser");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    }
+
+    /**
+     * Getter for the number of worker threads
+     *
+     * @return the number of worker threads
+     */
+    public int getThreads() {
+        return mThreads;
+    }
+
+    /**
+     * Parse the events of an array.
+     *
+     * @param jsonEvents the array of events
+     * @return the events, in the order of the array
+     * @throws ParserException if an event cannot be parsed
+     * @throws JSONException   if an element of the array is not an object
+     */
+    public List<Event> parse(final JSONArray jsonEvents) throws ParserException, JSONException {
+        if (jsonEvents == null) {
+            throw new IllegalArgumentException();
+        }
+        int length = jsonEvents.length();
+        if (mThreads == 1 || length <= mChunkSize) {
+            return parseChunk(jsonEvents, 0, length);
+        }
+        List<Future<List<Event>>> chunks = new ArrayList<>();
+        for (int start = 0; start < length; start += mChunkSize) {
+            final int from = start;
+            final int to = Math.min(start + mChunkSize, length);
+            chunks.add(
+                mExecutor.submit(
+                    new Callable<List<Event>>() {
+                        @Override
+                        public List<Event> call() throws ParserException, JSONException {
+                            return parseChunk(jsonEvents, from, to);
+                        }
+                    }));
+        }
+        List<Event> events = new ArrayList<>(length);
+        try {
+            for (Future<List<Event>> chunk : chunks) {
+                events.addAll(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ParserException) {
+                throw (ParserException) cause;
+            }
+            if (cause instanceof JSONException) {
+                throw (JSONException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ParserException(cause);
+        } finally {
+            for (Future<List<Event>> chunk : chunks) {
+                chunk.cancel(true);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Stop the worker threads. The parser cannot be used afterwards.
+     */
+    public void shutdown() {
+        mExecutor.shutdownNow();
+    }
+
+    private static List<Event> parseChunk(JSONArray jsonEvents, int from, int to)
+        throws ParserException, JSONException
+    {
+        List<Event> events = new ArrayList<>(to - from);
+        for (int i = from; i < to; ++i) {
+            SafeJSONObject jsonObject = new SafeJSONObject(jsonEvents.getJSONObject(i));
+            Parser<? extends Event> parser = ParserFactory.parserFor(jsonObject);
+            events.add(parser.parse(jsonObject));
+        }
+        return events;
+    }
+}
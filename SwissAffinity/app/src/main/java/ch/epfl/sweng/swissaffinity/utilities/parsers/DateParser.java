@@ -2,17 +2,48 @@ package ch.epfl.sweng.swissaffinity.utilities.parsers;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
 
 /**
  * Allows to parse for getting Date instance.
+ * <p/>
+ * The server and Facebook formats are read directly from their digits. Other inputs
+ * go through a {@link SimpleDateFormat}, kept per thread and per format as long as the
+ * default locale and time zone do not change.
+ * <p/>
+ * The dates formatted for display are cached by timestamp, so that binding the same
+ * events again does not format them again. A cached date is read without locking nor
+ * allocating. The cache is emptied when the default locale changes, or when the time
+ * zone changes (see {@link #onTimeZoneChanged()}).
  */
 public class DateParser {
 
     public static final String SERVER_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ";
     public static final String FACEBOOK_DATE_FORMAT = "MM/dd/yyyy";
 
+    private static final int SERVER_DATE_LENGTH = "yyyy-MM-ddTHH:mm:ss+hhmm".length();
+    private static final int FACEBOOK_DATE_LENGTH = FACEBOOK_DATE_FORMAT.length();
+    // The Gregorian calendar rules apply from this year on with the default cutover.
+    private static final int MIN_YEAR = 1583;
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+    private static final String DISPLAY_DATE_FORMAT = "dd MMMM yyyy - HH:mm";
+    private static final int DISPLAY_CACHE_SIZE = 256; // a power of 2
+
+    private static volatile DisplayDates DISPLAY_DATES;
+
+    private static final ThreadLocal<Formats> FORMATS = new ThreadLocal<Formats>() {
+        @Override
+        protected Formats initialValue() {
+            return new Formats();
+        }
+    };
+
     private DateParser() {
     }
 
@@ -30,8 +61,19 @@ public class DateParser {
         if (dateString == null || dateFormat == null) {
             throw new IllegalArgumentException();
         }
+        if (dateFormat.equals(SERVER_DATE_FORMAT)) {
+            Date date = parseServerDate(dateString);
+            if (date != null) {
+                return date;
+            }
+        } else if (dateFormat.equals(FACEBOOK_DATE_FORMAT)) {
+            Date date = parseFacebookDate(dateString);
+            if (date != null) {
+                return date;
+            }
+        }
         try {
-            return new SimpleDateFormat(dateFormat, Locale.getDefault()).parse(dateString);
+            return FORMATS.get().formatFor(dateFormat).parse(dateString);
         } catch (ParseException e) {
             throw new ParserException(e);
         }
@@ -47,8 +89,215 @@ public class DateParser {
         if (date == null) {
             throw new IllegalArgumentException();
         }
-        SimpleDateFormat dateFormat =
-            new SimpleDateFormat("dd MMMM yyyy - HH:mm", Locale.getDefault());
-        return dateFormat.format(date.getTime());
+        Locale locale = Locale.getDefault();
+        DisplayDates displayDates = DISPLAY_DATES;
+        if (displayDates == null || !locale.equals(displayDates.mLocale)) {
+            displayDates = new DisplayDates(locale);
+            DISPLAY_DATES = displayDates;
+        }
+        return displayDates.format(date);
+    }
+
+    /**
+     * Empty the cache of the dates formatted for display, which were formatted in the
+     * previous default time zone. To be called when the time zone of the device changes.
+     */
+    public static void onTimeZoneChanged() {
+        DISPLAY_DATES = null;
+    }
+
+    /**
+     * Read a date like "2015-11-19T20:00:00+0100".
+     *
+     * @return the date, or null if the string has to go through the general path
+     */
+    private static Date parseServerDate(String s) {
+        if (s.length() != SERVER_DATE_LENGTH
+            || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T'
+            || s.charAt(13) != ':' || s.charAt(16) != ':')
+        {
+            return null;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        int offsetHours = digits(s, 20, 2);
+        int offsetMinutes = digits(s, 22, 2);
+        char sign = s.charAt(19);
+        if (!isValidDate(year, month, day) || hour < 0 || hour > 23
+            || minute < 0 || minute > 59 || second < 0 || second > 59
+            || offsetHours < 0 || offsetHours > 23 || offsetMinutes < 0 || offsetMinutes > 59
+            || (sign != '+' && sign != '-'))
+        {
+            return null;
+        }
+        long offset = (offsetHours * 60 + offsetMinutes) * 60 * 1000L;
+        long millis = daysSinceEpoch(year, month, day) * MILLIS_PER_DAY
+                      + ((hour * 60 + minute) * 60 + second) * 1000L;
+        return new Date(sign == '+' ? millis - offset : millis + offset);
+    }
+
+    /**
+     * Read a date like "12/31/2015", at midnight in the default time zone.
+     *
+     * @return the date, or null if the string has to go through the general path
+     */
+    private static Date parseFacebookDate(String s) {
+        if (s.length() != FACEBOOK_DATE_LENGTH || s.charAt(2) != '/' || s.charAt(5) != '/') {
+            return null;
+        }
+        int month = digits(s, 0, 2);
+        int day = digits(s, 3, 2);
+        int year = digits(s, 6, 4);
+        if (!isValidDate(year, month, day)) {
+            return null;
+        }
+        Calendar calendar = FORMATS.get().calendar();
+        calendar.clear();
+        calendar.set(year, month - 1, day);
+        return calendar.getTime();
+    }
+
+    /**
+     * @return the value of the decimal digits, or -1 if one is not a digit
+     */
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; ++i) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isValidDate(int year, int month, int day) {
+        return year >= MIN_YEAR && month >= 1 && month <= 12
+               && day >= 1 && day <= daysInMonth(year, month);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return the number of days from 1970-01-01 to the given date of the Gregorian calendar
+     */
+    private static long daysSinceEpoch(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * The dates formatted for display in a locale and a time zone, cached by timestamp in
+     * a direct-mapped table. The entries are immutable, so that they can be read without
+     * locking; the format itself is only used under its lock, on a miss.
+     */
+    private static final class DisplayDates {
+        private final Locale mLocale;
+        private final SimpleDateFormat mFormat;
+        private final DisplayDate[] mDates = new DisplayDate[DISPLAY_CACHE_SIZE];
+
+        DisplayDates(Locale locale) {
+            mLocale = locale;
+            mFormat = new SimpleDateFormat(DISPLAY_DATE_FORMAT, locale);
+        }
+
+        String format(Date date) {
+            long time = date.getTime();
+            int index = indexFor(time);
+            DisplayDate cached = mDates[index];
+            if (cached != null && cached.mTime == time) {
+                return cached.mText;
+            }
+            String text;
+            synchronized (mFormat) {
+                text = mFormat.format(date);
+            }
+            mDates[index] = new DisplayDate(time, text);
+            return text;
+        }
+
+        private static int indexFor(long time) {
+            // the timestamps are often multiples of a minute: their bits are mixed first
+            int hash = (int) (time ^ (time >>> 32));
+            hash ^= hash >>> 16;
+            hash *= 0x85ebca6b;
+            hash ^= hash >>> 13;
+            return hash & (DISPLAY_CACHE_SIZE - 1);
+        }
+    }
+
+    private static final class DisplayDate {
+        private final long mTime;
+        private final String mText;
+
+        DisplayDate(long time, String text) {
+            mTime = time;
+            mText = text;
+        }
+    }
+
+    /**
+     * The formatters and the calendar of a thread, for the current default locale and
+     * time zone.
+     */
+    private static final class Formats {
+        private final Map<String, SimpleDateFormat> mFormats = new HashMap<>();
+        private Locale mLocale;
+        private TimeZone mTimeZone;
+        private Calendar mCalendar;
+
+        SimpleDateFormat formatFor(String dateFormat) {
+            update();
+            SimpleDateFormat format = mFormats.get(dateFormat);
+            if (format == null) {
+                format = new SimpleDateFormat(dateFormat, mLocale);
+                mFormats.put(dateFormat, format);
+            }
+            return format;
+        }
+
+        Calendar calendar() {
+            update();
+            if (mCalendar == null) {
+                mCalendar = new GregorianCalendar(mTimeZone, mLocale);
+            }
+            return mCalendar;
+        }
+
+        private void update() {
+            Locale locale = Locale.getDefault();
+            TimeZone timeZone = TimeZone.getDefault();
+            if (!locale.equals(mLocale)
+                || mTimeZone == null
+                || !timeZone.getID().equals(mTimeZone.getID()))
+            {
+                mLocale = locale;
+                mTimeZone = timeZone;
+                mFormats.clear();
+                mCalendar = null;
+            }
+        }
     }
 }
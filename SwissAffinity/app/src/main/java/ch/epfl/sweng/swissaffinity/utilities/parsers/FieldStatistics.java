@@ -0,0 +1,93 @@
+package ch.epfl.sweng.swissaffinity.utilities.parsers;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts per field name the values looked up with a default value that were missing,
+ * or present with a type that could not be used.
+ * <p/>
+ * The counts are recorded without locking, so that the parsers running in parallel do
+ * not wait for each other.
+ */
+public class FieldStatistics {
+
+    private final ConcurrentMap<String, AtomicIntegerArray> mCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Record a missing value.
+     *
+     * @param name the name of the field
+     */
+    public void recordMissing(String name) {
+        countsFor(name).incrementAndGet(0);
+    }
+
+    /**
+     * Record a value of a type that could not be used.
+     *
+     * @param name the name of the field
+     */
+    public void recordMismatch(String name) {
+        countsFor(name).incrementAndGet(1);
+    }
+
+    /**
+     * @param name the name of the field
+     * @return the number of times the field was missing
+     */
+    public int getMissingCount(String name) {
+        AtomicIntegerArray counts = mCounts.get(name);
+        return counts == null ? 0 : counts.get(0);
+    }
+
+    /**
+     * @param name the name of the field
+     * @return the number of times the field had a type that could not be used
+     */
+    public int getMismatchCount(String name) {
+        AtomicIntegerArray counts = mCounts.get(name);
+        return counts == null ? 0 : counts.get(1);
+    }
+
+    /**
+     * Forget all the recorded fields.
+     */
+    public void reset() {
+        mCounts.clear();
+    }
+
+    private AtomicIntegerArray countsFor(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException();
+        }
+        AtomicIntegerArray counts = mCounts.get(name);
+        if (counts == null) {
+            AtomicIntegerArray newCounts = new AtomicIntegerArray(2);
+            counts = mCounts.putIfAbsent(name, newCounts);
+            if (counts == null) {
+                counts = newCounts;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, AtomicIntegerArray> entry : mCounts.entrySet()) {
+            AtomicIntegerArray counts = entry.getValue();
+            builder.append(
+                String.format(
+                    Locale.US,
+                    "%s: %d missing, %d mismatched\n",
+                    entry.getKey(),
+                    counts.get(0),
+                    counts.get(1)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package ch.epfl.sweng.swissaffinity.utilities.parsers;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ch.epfl.sweng.swissaffinity.events.Establishment;
+import ch.epfl.sweng.swissaffinity.utilities.Location;
+
+/**
+ * Pool of shared instances keyed by their id, so that the venues and cities shared by
+ * many events are held once in memory.
+ * <p/>
+ * An instance is only shared with an equal one: when the server sends new values for
+ * an id, the new instance replaces the pooled one.
+ * <p/>
+ * The pool can be used by several parsing threads at once without locking. It only lives
+ * for the parsing of a catalogue: it is emptied with {@link #clearAll()} once the catalogue
+ * is built, and pools no more than a bounded number of instances in between.
+ *
+ * @param <T> the type of the pooled instances, which must be immutable
+ */
+public class Interner<T> {
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    public static final Interner<Location> LOCATIONS = new Interner<>();
+    public static final Interner<Establishment> ESTABLISHMENTS = new Interner<>();
+
+    private final ConcurrentMap<Integer, T> mInstances = new ConcurrentHashMap<>();
+    private final int mMaxSize;
+    private volatile boolean mEnabled = true;
+
+    /**
+     * Constructor of a pool of {@link #DEFAULT_MAX_SIZE} instances at most
+     */
+    public Interner() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor of the class
+     *
+     * @param maxSize the maximum number of pooled instances
+     */
+    public Interner(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Empty the pools of the locations and of the establishments.<br>
+     * To be called once the parsed instances are held by the catalogue.
+     */
+    public static void clearAll() {
+        LOCATIONS.clear();
+        ESTABLISHMENTS.clear();
+    }
+
+    /**
+     * Get the shared instance equal to the given one.
+     *
+     * @param id       the id of the instance
+     * @param instance the instance that was parsed
+     * @return the pooled instance if it is equal to the given one, the given one otherwise
+     */
+    public T intern(int id, T instance) {
+        if (instance == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!mEnabled) {
+            return instance;
+        }
+        while (true) {
+            T pooled = mInstances.get(id);
+            if (pooled == null) {
+                if (mInstances.size() >= mMaxSize) {
+                    return instance; // the pool is full: not shared.
+                }
+                pooled = mInstances.putIfAbsent(id, instance);
+                if (pooled == null) {
+                    return instance;
+                }
+            }
+            if (instance.equals(pooled)) {
+                return pooled;
+            }
+            if (mInstances.replace(id, pooled, instance)) {
+                return instance;
+            }
+            // another thread changed the pooled instance: look again.
+        }
+    }
+
+    /**
+     * Getter for the number of pooled instances
+     *
+     * @return the number of pooled instances
+     */
+    public int size() {
+        return mInstances.size();
+    }
+
+    /**
+     * Forget all the pooled instances.
+     */
+    public void clear() {
+        mInstances.clear();
+    }
+
+    /**
+     * Setter to enable or disable the pooling (FOR TESTING PURPOSE ONLY)
+     *
+     * @param enabled if the instances are pooled
+     */
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+        mInstances.clear();
+    }
+}
@@ -0,0 +1,137 @@
+package ch.epfl.sweng.swissaffinity.utilities.parsers;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a JSON document from a stream of characters into {@link JSONArray} and
+ * {@link JSONObject} instances, without building the document as a String first.
+ * <p/>
+ * The values have the same types as with the String constructors of org.json:
+ * Integer, Long or Double for the numbers, {@link JSONObject#NULL} for null.
+ */
+public class JSONTreeReader {
+
+    private JSONTreeReader() {
+    }
+
+    /**
+     * Read a JSON array. The reader is not closed.
+     *
+     * @param reader the stream of the document
+     * @return the array
+     * @throws IOException   if the stream cannot be read or is not well-formed JSON
+     * @throws JSONException if the document is not an array
+     */
+    public static JSONArray readArray(Reader reader) throws IOException, JSONException {
+        JsonReader jsonReader = new JsonReader(reader);
+        if (jsonReader.peek() != JsonToken.BEGIN_ARRAY) {
+            throw new JSONException("The document is not a JSON array.");
+        }
+        return readArray(jsonReader);
+    }
+
+    /**
+     * Read a JSON object. The reader is not closed.
+     *
+     * @param reader the stream of the document
+     * @return the object
+     * @throws IOException   if the stream cannot be read or is not well-formed JSON
+     * @throws JSONException if the document is not an object
+     */
+    public static JSONObject readObject(Reader reader) throws IOException, JSONException {
+        JsonReader jsonReader = new JsonReader(reader);
+        if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new JSONException("The document is not a JSON object.");
+        }
+        return readObject(jsonReader);
+    }
+
+    private static JSONArray readArray(JsonReader reader) throws IOException, JSONException {
+        JSONArray array = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            array.put(readValue(reader));
+        }
+        reader.endArray();
+        return array;
+    }
+
+    /**
+     * Read the next value of a token stream, which has to be a JSON object.
+     *
+     * @param reader the token stream, positioned before the object
+     * @return the object
+     * @throws IOException   if the stream cannot be read or is not well-formed JSON
+     * @throws JSONException if the next value is not an object
+     */
+    public static JSONObject readObject(JsonReader reader) throws IOException, JSONException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new JSONException("The value is not a JSON object.");
+        }
+        JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            object.put(reader.nextName(), readValue(reader));
+        }
+        reader.endObject();
+        return object;
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return toNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                throw new JSONException("Unexpected token " + reader.peek());
+        }
+    }
+
+    /**
+     * Convert a number literal the way org.json does: integers that fit are
+     * Integer, then Long, and the others Double.
+     *
+     * @param literal the number as written in the document
+     * @return the number
+     * @throws JSONException if the literal is not a number
+     */
+    public static Number toNumber(String literal) throws JSONException {
+        try {
+            if (literal.indexOf('.') == -1
+                && literal.indexOf('e') == -1
+                && literal.indexOf('E') == -1)
+            {
+                long value = Long.parseLong(literal);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // too large for a long, read as a double.
+        }
+        try {
+            return Double.valueOf(literal);
+        } catch (NumberFormatException e) {
+            throw new JSONException("Invalid number " + literal);
+        }
+    }
+}
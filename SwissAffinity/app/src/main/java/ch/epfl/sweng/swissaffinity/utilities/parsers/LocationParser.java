@@ -7,6 +7,8 @@ import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.NAME;
 
 /**
  * Parser for the Location class.
+ * <p/>
+ * The parsed locations are shared through {@link Interner#LOCATIONS}.
  */
 public class LocationParser extends Parser<Location> {
 
@@ -14,6 +16,6 @@ public class LocationParser extends Parser<Location> {
     public Location parse(SafeJSONObject jsonObject) throws ParserException {
         int id = jsonObject.get(ID.get(), SafeJSONObject.DEFAULT_INT);
         String name = jsonObject.get(NAME.get(), SafeJSONObject.DEFAULT_STRING);
-        return new Location(id, name);
+        return Interner.LOCATIONS.intern(id, new Location(id, name));
     }
 }
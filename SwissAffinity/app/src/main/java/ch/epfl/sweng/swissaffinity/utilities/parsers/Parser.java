@@ -2,6 +2,8 @@ package ch.epfl.sweng.swissaffinity.utilities.parsers;
 
 /**
  * Representation of a parser.
+ * <p/>
+ * Parsers hold no state, so that one instance can be shared between threads.
  *
  * @param <A> generic type to parse out.
  */
@@ -1,6 +1,10 @@
 package ch.epfl.sweng.swissaffinity.utilities.parsers;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.events.SpeedDatingEventParser;
 
 import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.EVENT_TYPE;
@@ -9,19 +13,77 @@ import static ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject.DEFAU
 
 /**
  * Factory for parsers.
+ * <p/>
+ * The parsers are registered by event type (the "discr" attribute of the server) and
+ * shared by all the callers, as they hold no state.
+ * <p/>
+ * As long as only the built-in speed dating parser is registered, the event lists are
+ * decoded straight from the token stream by the
+ * {@link ch.epfl.sweng.swissaffinity.utilities.parsers.events.EventStreamDecoder};
+ * otherwise each event is read as a JSON object and given to its registered parser.
  */
 public class ParserFactory {
 
+    private static final Parser<SpeedDatingEvent> SPEED_DATING_PARSER =
+        new SpeedDatingEventParser();
+    private static final Map<String, Parser<? extends Event>> PARSERS =
+        new ConcurrentHashMap<>();
+
+    static {
+        register(SPEED_DATING_TYPE.get(), SPEED_DATING_PARSER);
+    }
+
     private ParserFactory() {
     }
 
+    /**
+     * Register the parser of an event type, replacing the previous one if any.
+     *
+     * @param eventType the event type as sent by the server
+     * @param parser    the parser, which has to be thread-safe
+     */
+    public static void register(String eventType, Parser<? extends Event> parser) {
+        if (eventType == null || parser == null) {
+            throw new IllegalArgumentException();
+        }
+        PARSERS.put(eventType, parser);
+    }
+
+    /**
+     * Unregister the parser of an event type, if any.
+     *
+     * @param eventType the event type as sent by the server
+     */
+    public static void unregister(String eventType) {
+        if (eventType == null) {
+            throw new IllegalArgumentException();
+        }
+        PARSERS.remove(eventType);
+    }
+
+    /**
+     * @return if parsers other than the built-in speed dating parser are registered,
+     * so that the events cannot be decoded from the token stream directly
+     */
+    public static boolean hasCustomParsers() {
+        return PARSERS.size() != 1 || PARSERS.get(SPEED_DATING_TYPE.get()) != SPEED_DATING_PARSER;
+    }
+
+    /**
+     * Getter for the parser of an event
+     *
+     * @param jsonObject the event
+     * @return the parser registered for the type of the event
+     * @throws ParserException if no parser is registered for the type
+     */
     public static Parser<? extends Event> parserFor(SafeJSONObject jsonObject)
         throws ParserException
     {
         String eventType = jsonObject.get(EVENT_TYPE.get(), DEFAULT_STRING);
-        if (eventType.equals(SPEED_DATING_TYPE.get())) {
-            return new SpeedDatingEventParser();
+        Parser<? extends Event> parser = PARSERS.get(eventType);
+        if (parser == null) {
+            throw new ParserException("Unknown parser type.");
         }
-        throw new ParserException("Unknown parser type.");
+        return parser;
     }
 }
@@ -1,7 +1,6 @@
 package ch.epfl.sweng.swissaffinity.utilities.parsers;
 
-import android.util.Log;
-
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -9,17 +8,24 @@ import ch.epfl.sweng.swissaffinity.utilities.Address;
 
 /**
  * Representation of a safe JSONObject class.
+ * <p/>
+ * It is a view over a {@link JSONObject}: wrapping an object does not copy it, so that
+ * the nested objects of a document can be parsed without serialising them again.
  */
-public class SafeJSONObject extends JSONObject {
+public class SafeJSONObject {
     public static final String DEFAULT_STRING = "";
     public static final int DEFAULT_INT = 0;
     public static final Address DEFAULT_ADDRESS = new Address("", 0, "", "", 0, "");
 
+    private static final FieldStatistics FIELD_STATISTICS = new FieldStatistics();
+
+    private final JSONObject mJsonObject;
+
     /**
      * Default constructor
      */
     public SafeJSONObject() {
-        super();
+        mJsonObject = new JSONObject();
     }
 
     /**
@@ -29,33 +35,158 @@ public class SafeJSONObject extends JSONObject {
      * @throws JSONException if something goes wrong
      */
     public SafeJSONObject(String json) throws JSONException {
-        super(json);
+        mJsonObject = new JSONObject(json);
     }
 
     /**
-     * Constructor of the class
+     * Constructor of the class, the object is wrapped without being copied.
      *
      * @param jsonObject a JSONObject instance
-     * @throws JSONException if something goes wrong
+     * @throws JSONException if the object is null
      */
     public SafeJSONObject(JSONObject jsonObject) throws JSONException {
-        this(jsonObject.toString());
+        if (jsonObject == null) {
+            throw new JSONException("No JSONObject to wrap.");
+        }
+        mJsonObject = jsonObject;
     }
 
     /**
-     * Getter to generically have a default fallback value.
+     * Getter to generically have a default fallback value.<br>
+     * The lookup does not throw: a missing value, or a value of another type, gives the
+     * default value and is counted in the {@link FieldStatistics}. Numbers are converted
+     * to the type of the default value: to an integer type only if the value is integral
+     * and fits in it, to a floating point type with the nearest value (a large long may
+     * be rounded).
+     *
+     * @param name         the name of the value
+     * @param defaultValue the default value, whose type is the expected one
+     * @return the value mapped by name, or the default value
      */
     @SuppressWarnings("unchecked")
     public <A> A get(String name, A defaultValue) {
-        A value = defaultValue;
-        try {
-            Object o = super.get(name);
-            if (o.getClass().equals(defaultValue.getClass())) {
-                value = (A) o;
+        Object o = mJsonObject.opt(name);
+        if (o == null || o == JSONObject.NULL) {
+            FIELD_STATISTICS.recordMissing(name);
+            return defaultValue;
+        }
+        if (defaultValue == null) {
+            return null;
+        }
+        if (o.getClass().equals(defaultValue.getClass())) {
+            return (A) o;
+        }
+        if (o instanceof Number && defaultValue instanceof Number) {
+            Number number = convert((Number) o, (Number) defaultValue);
+            if (number != null) {
+                return (A) number;
             }
-        } catch (JSONException e) {
-            Log.v("SafeJSONObject", e.getMessage());
         }
-        return value;
+        FIELD_STATISTICS.recordMismatch(name);
+        return defaultValue;
+    }
+
+    /**
+     * Getter for the statistics of the missing and mismatched values of all the objects
+     *
+     * @return the field statistics {@link FieldStatistics}
+     */
+    public static FieldStatistics getFieldStatistics() {
+        return FIELD_STATISTICS;
+    }
+
+    /**
+     * Convert a number to the type of the given one. The conversion to an integer type
+     * is exact, the one to a floating point type may round.
+     *
+     * @return the converted number, or null if it cannot be done
+     */
+    private static Number convert(Number number, Number type) {
+        if (type instanceof Double) {
+            return number.doubleValue();
+        }
+        if (type instanceof Float) {
+            return number.floatValue();
+        }
+        boolean integral = number instanceof Integer || number instanceof Long
+                           || number instanceof Short || number instanceof Byte;
+        long value = number.longValue();
+        if (!integral && number.doubleValue() != value) {
+            return null;
+        }
+        if (type instanceof Long) {
+            return value;
+        }
+        if (type instanceof Integer && value == (int) value) {
+            return (int) value;
+        }
+        return null;
+    }
+
+    /**
+     * @param name the name of the value
+     * @return the value mapped by name
+     * @throws JSONException if the mapping does not exist
+     */
+    public Object get(String name) throws JSONException {
+        return mJsonObject.get(name);
+    }
+
+    /**
+     * @param name the name of the value
+     * @return if the object has a mapping for name
+     */
+    public boolean has(String name) {
+        return mJsonObject.has(name);
+    }
+
+    /**
+     * @param name the name of the value
+     * @return the value mapped by name as an int
+     * @throws JSONException if the mapping does not exist or is of another type
+     */
+    public int getInt(String name) throws JSONException {
+        return mJsonObject.getInt(name);
+    }
+
+    /**
+     * @param name the name of the value
+     * @return the value mapped by name as a double
+     * @throws JSONException if the mapping does not exist or is of another type
+     */
+    public double getDouble(String name) throws JSONException {
+        return mJsonObject.getDouble(name);
+    }
+
+    /**
+     * @param name the name of the value
+     * @return the value mapped by name as a String
+     * @throws JSONException if the mapping does not exist or is of another type
+     */
+    public String getString(String name) throws JSONException {
+        return mJsonObject.getString(name);
+    }
+
+    /**
+     * @param name the name of the value
+     * @return the value mapped by name as a JSONObject
+     * @throws JSONException if the mapping does not exist or is of another type
+     */
+    public JSONObject getJSONObject(String name) throws JSONException {
+        return mJsonObject.getJSONObject(name);
+    }
+
+    /**
+     * @param name the name of the value
+     * @return the value mapped by name as a JSONArray
+     * @throws JSONException if the mapping does not exist or is of another type
+     */
+    public JSONArray getJSONArray(String name) throws JSONException {
+        return mJsonObject.getJSONArray(name);
+    }
+
+    @Override
+    public String toString() {
+        return mJsonObject.toString();
     }
 }
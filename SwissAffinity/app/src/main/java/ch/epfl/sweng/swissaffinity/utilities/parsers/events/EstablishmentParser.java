@@ -6,6 +6,7 @@ import ch.epfl.sweng.swissaffinity.events.Establishment;
 import ch.epfl.sweng.swissaffinity.events.Establishment.Type;
 import ch.epfl.sweng.swissaffinity.utilities.Address;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.AddressParser;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.Interner;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.Parser;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
 import ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject;
@@ -23,9 +24,13 @@ import static ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject.DEFAU
 
 /**
  * Parser for the Establishment class.
+ * <p/>
+ * The parsed establishments are shared through {@link Interner#ESTABLISHMENTS}.
  */
 public class EstablishmentParser extends Parser<Establishment> {
 
+    private static final AddressParser ADDRESS_PARSER = new AddressParser();
+
     @Override
     public Establishment parse(SafeJSONObject jsonObject) throws ParserException {
 
@@ -44,14 +49,14 @@ public class EstablishmentParser extends Parser<Establishment> {
             throw new ParserException(e);
         }
 
-        Address address = new AddressParser().parse(jsonAddress);
+        Address address = ADDRESS_PARSER.parse(jsonAddress);
         String phoneNum = jsonObject.get(PHONE_NUMBER.get(), DEFAULT_STRING);
         String description = jsonObject.get(DESCRIPTION.get(), DEFAULT_STRING);
         String url = jsonObject.get(URL.get(), DEFAULT_STRING);
         int maxSeats = jsonObject.get(MAX_SEATS.get(), 0);
         String logoPath = jsonObject.get(LOGO_PATH.get(), DEFAULT_STRING);
 
-        return new Establishment(
+        Establishment establishment = new Establishment(
             id,
             name,
             type,
@@ -61,5 +66,6 @@ public class EstablishmentParser extends Parser<Establishment> {
             url,
             maxSeats,
             logoPath);
+        return Interner.ESTABLISHMENTS.intern(id, establishment);
     }
 }
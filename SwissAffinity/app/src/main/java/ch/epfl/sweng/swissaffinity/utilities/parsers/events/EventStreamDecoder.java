@@ -0,0 +1,554 @@
+package ch.epfl.sweng.swissaffinity.utilities.parsers.events;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.epfl.sweng.swissaffinity.events.Establishment;
+import ch.epfl.sweng.swissaffinity.events.Establishment.Type;
+import ch.epfl.sweng.swissaffinity.events.Event;
+import ch.epfl.sweng.swissaffinity.events.EventSummary;
+import ch.epfl.sweng.swissaffinity.events.SpeedDatingEvent;
+import ch.epfl.sweng.swissaffinity.users.Registration;
+import ch.epfl.sweng.swissaffinity.utilities.Address;
+import ch.epfl.sweng.swissaffinity.utilities.Location;
+import ch.epfl.sweng.swissaffinity.utilities.network.ServerTags;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.DateParser;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.Interner;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.JSONTreeReader;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserException;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.ParserFactory;
+import ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject;
+
+import static ch.epfl.sweng.swissaffinity.utilities.network.ServerTags.SPEED_DATING_TYPE;
+import static ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject.DEFAULT_INT;
+import static ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject.DEFAULT_STRING;
+
+/**
+ * Decoder of the events sent by the server, reading the JSON token stream directly
+ * into {@link SpeedDatingEvent}, {@link Establishment} and {@link Location} instances
+ * in one pass, without building JSON objects first.
+ * <p/>
+ * It follows the rules of {@link SpeedDatingEventParser}: the same attributes are
+ * mandatory, and the others fall back to their default value when they are missing
+ * or of another type, and the locations and establishments are shared through the
+ * {@link Interner} pools.
+ * <p/>
+ * When other parsers are registered in the {@link ParserFactory}, each event of a list
+ * is read as a JSON object and given to the parser registered for its type instead.
+ */
+public class EventStreamDecoder {
+
+    private static final Map<String, ServerTags> TAGS = new HashMap<>();
+
+    static {
+        for (ServerTags tag : ServerTags.values()) {
+            TAGS.put(tag.get(), tag);
+        }
+    }
+
+    /**
+     * Decode a JSON array of events. The reader is not closed.
+     *
+     * @param reader the stream of the array
+     * @param events the list the events are added to
+     * @throws IOException     if the stream cannot be read or is not well-formed JSON
+     * @throws ParserException if an event cannot be decoded
+     */
+    public void decodeEvents(Reader reader, List<Event> events)
+        throws IOException, ParserException
+    {
+        JsonReader jsonReader = new JsonReader(reader);
+        try {
+            expect(jsonReader, JsonToken.BEGIN_ARRAY);
+            jsonReader.beginArray();
+            boolean customParsers = ParserFactory.hasCustomParsers();
+            while (jsonReader.hasNext()) {
+                events.add(customParsers ? parseEvent(jsonReader) : decodeEvent(jsonReader));
+            }
+            jsonReader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    /**
+     * Decode a JSON array of registrations. The reader is not closed.
+     *
+     * @param reader        the stream of the array
+     * @param registrations the list the registrations are added to
+     * @throws IOException     if the stream cannot be read or is not well-formed JSON
+     * @throws ParserException if a registration cannot be decoded
+     */
+    public void decodeRegistrations(Reader reader, List<Registration> registrations)
+        throws IOException, ParserException
+    {
+        JsonReader jsonReader = new JsonReader(reader);
+        try {
+            expect(jsonReader, JsonToken.BEGIN_ARRAY);
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                registrations.add(decodeRegistration(jsonReader));
+            }
+            jsonReader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    /**
+     * Decode a JSON array of events into their summaries. The reader is not closed.<br>
+     * The events may be complete or projected on the attributes of the summaries: the
+     * other attributes are skipped.
+     *
+     * @param reader    the stream of the array
+     * @param summaries the list the summaries are added to
+     * @throws IOException     if the stream cannot be read or is not well-formed JSON
+     * @throws ParserException if a summary cannot be decoded
+     */
+    public void decodeSummaries(Reader reader, List<EventSummary> summaries)
+        throws IOException, ParserException
+    {
+        JsonReader jsonReader = new JsonReader(reader);
+        try {
+            expect(jsonReader, JsonToken.BEGIN_ARRAY);
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                summaries.add(decodeSummary(jsonReader));
+            }
+            jsonReader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    private EventSummary decodeSummary(JsonReader reader) throws IOException, ParserException {
+        Integer id = null;
+        Location location = null;
+        String name = DEFAULT_STRING;
+        String dateBegin = DEFAULT_STRING;
+
+        expect(reader, JsonToken.BEGIN_OBJECT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            ServerTags tag = TAGS.get(reader.nextName());
+            if (tag == ServerTags.ID) {
+                id = nextMandatoryInt(reader);
+            } else if (tag == ServerTags.NAME) {
+                name = nextString(reader, name);
+            } else if (tag == ServerTags.LOCATION) {
+                location = decodeLocation(reader);
+            } else if (tag == ServerTags.DATE_BEGIN) {
+                dateBegin = nextString(reader, dateBegin);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (id == null || location == null) {
+            throw new ParserException("Missing summary attributes.");
+        }
+        try {
+            return new EventSummary(
+                id,
+                name,
+                location,
+                DateParser.parseFromString(dateBegin, DateParser.SERVER_DATE_FORMAT));
+        } catch (IllegalArgumentException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    private Registration decodeRegistration(JsonReader reader)
+        throws IOException, ParserException
+    {
+        Integer id = null;
+        Event event = null;
+        expect(reader, JsonToken.BEGIN_OBJECT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            ServerTags tag = TAGS.get(reader.nextName());
+            if (tag == ServerTags.ID) {
+                id = nextMandatoryInt(reader);
+            } else if (tag == ServerTags.EVENT) {
+                expect(reader, JsonToken.BEGIN_OBJECT);
+                event = decodeEvent(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (id == null || event == null) {
+            throw new ParserException("Missing registration attributes.");
+        }
+        return new Registration(id, event);
+    }
+
+    /**
+     * Read an event as a JSON object, and parse it with the parser of its type.
+     */
+    private Event parseEvent(JsonReader reader) throws IOException, ParserException {
+        expect(reader, JsonToken.BEGIN_OBJECT);
+        try {
+            SafeJSONObject jsonObject = new SafeJSONObject(JSONTreeReader.readObject(reader));
+            return ParserFactory.parserFor(jsonObject).parse(jsonObject);
+        } catch (JSONException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    /**
+     * The type of an event comes after its attributes, so they are all read before
+     * the event is built.
+     */
+    private Event decodeEvent(JsonReader reader) throws IOException, ParserException {
+        Integer id = null;
+        Double basePrice = null;
+        Location location = null;
+        Establishment establishment = null;
+        String eventType = DEFAULT_STRING;
+        String name = DEFAULT_STRING;
+        String dateBegin = DEFAULT_STRING;
+        String dateEnd = DEFAULT_STRING;
+        String state = DEFAULT_STRING;
+        String description = DEFAULT_STRING;
+        String imagePath = DEFAULT_STRING;
+        String lastUpdate = DEFAULT_STRING;
+        int maxPeople = DEFAULT_INT;
+        int menSeats = DEFAULT_INT;
+        int womenSeats = DEFAULT_INT;
+        int menRegistered = DEFAULT_INT;
+        int womenRegistered = DEFAULT_INT;
+        int minAge = DEFAULT_INT;
+        int maxAge = DEFAULT_INT;
+
+        expect(reader, JsonToken.BEGIN_OBJECT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            ServerTags tag = TAGS.get(reader.nextName());
+            if (tag == null) {
+                reader.skipValue();
+                continue;
+            }
+            switch (tag) {
+                case ID:
+                    id = nextMandatoryInt(reader);
+                    break;
+                case NAME:
+                    name = nextString(reader, name);
+                    break;
+                case LOCATION:
+                    location = decodeLocation(reader);
+                    break;
+                case ESTABLISHMENT:
+                    establishment = decodeEstablishment(reader);
+                    break;
+                case BASE_PRICE:
+                    basePrice = nextMandatoryDouble(reader);
+                    break;
+                case MAX_PEOPLE:
+                    maxPeople = nextInt(reader, maxPeople);
+                    break;
+                case DATE_BEGIN:
+                    dateBegin = nextString(reader, dateBegin);
+                    break;
+                case DATE_END:
+                    dateEnd = nextString(reader, dateEnd);
+                    break;
+                case STATE:
+                    state = nextString(reader, state);
+                    break;
+                case DESCRIPTION:
+                    description = nextString(reader, description);
+                    break;
+                case IMAGE_PATH:
+                    imagePath = nextString(reader, imagePath);
+                    break;
+                case LAST_UPDATE:
+                    lastUpdate = nextString(reader, lastUpdate);
+                    break;
+                case MEN_SEATS:
+                    menSeats = nextInt(reader, menSeats);
+                    break;
+                case WOMEN_SEATS:
+                    womenSeats = nextInt(reader, womenSeats);
+                    break;
+                case MEN_REGISTERED:
+                    menRegistered = nextInt(reader, menRegistered);
+                    break;
+                case WOMEN_REGISTERED:
+                    womenRegistered = nextInt(reader, womenRegistered);
+                    break;
+                case MIN_AGE:
+                    minAge = nextInt(reader, minAge);
+                    break;
+                case MAX_AGE:
+                    maxAge = nextInt(reader, maxAge);
+                    break;
+                case EVENT_TYPE:
+                    eventType = nextString(reader, eventType);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!eventType.equals(SPEED_DATING_TYPE.get())) {
+            throw new ParserException("Unknown parser type.");
+        }
+        if (id == null || location == null || establishment == null || basePrice == null) {
+            throw new ParserException("Missing event attributes.");
+        }
+        SpeedDatingEvent.Builder builder = new SpeedDatingEvent.Builder();
+        builder.setId(id)
+               .setName(name)
+               .setLocation(location)
+               .setMaxPeople(maxPeople)
+               .setDateBegin(DateParser.parseFromString(dateBegin, DateParser.SERVER_DATE_FORMAT))
+               .setDateEnd(DateParser.parseFromString(dateEnd, DateParser.SERVER_DATE_FORMAT))
+               .setBasePrice(basePrice)
+               .setState(state)
+               .setDescription(description)
+               .setImagePath(imagePath)
+               .setLastUpdate(
+                   DateParser.parseFromString(
+                       lastUpdate,
+                       DateParser.SERVER_DATE_FORMAT));
+        builder.setMenSeats(menSeats)
+               .setWomenSeats(womenSeats)
+               .setMenRegistered(menRegistered)
+               .setWomenRegistered(womenRegistered)
+               .setMinAge(minAge)
+               .setMaxAge(maxAge)
+               .setEstablishment(establishment);
+        return builder.build();
+    }
+
+    private Location decodeLocation(JsonReader reader) throws IOException, ParserException {
+        int id = DEFAULT_INT;
+        String name = DEFAULT_STRING;
+        expect(reader, JsonToken.BEGIN_OBJECT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            ServerTags tag = TAGS.get(reader.nextName());
+            if (tag == ServerTags.ID) {
+                id = nextInt(reader, id);
+            } else if (tag == ServerTags.NAME) {
+                name = nextString(reader, name);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return Interner.LOCATIONS.intern(id, new Location(id, name));
+    }
+
+    private Establishment decodeEstablishment(JsonReader reader)
+        throws IOException, ParserException
+    {
+        Integer id = null;
+        String name = null;
+        String type = null;
+        Address address = null;
+        String phoneNumber = DEFAULT_STRING;
+        String description = DEFAULT_STRING;
+        String url = DEFAULT_STRING;
+        int maxSeats = 0;
+        String logoPath = DEFAULT_STRING;
+
+        expect(reader, JsonToken.BEGIN_OBJECT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            ServerTags tag = TAGS.get(reader.nextName());
+            if (tag == null) {
+                reader.skipValue();
+                continue;
+            }
+            switch (tag) {
+                case ID:
+                    id = nextMandatoryInt(reader);
+                    break;
+                case NAME:
+                    name = nextMandatoryString(reader);
+                    break;
+                case TYPE:
+                    type = nextMandatoryString(reader);
+                    break;
+                case ADDRESS:
+                    address = decodeAddress(reader);
+                    break;
+                case PHONE_NUMBER:
+                    phoneNumber = nextString(reader, phoneNumber);
+                    break;
+                case DESCRIPTION:
+                    description = nextString(reader, description);
+                    break;
+                case URL:
+                    url = nextString(reader, url);
+                    break;
+                case MAX_SEATS:
+                    maxSeats = nextInt(reader, maxSeats);
+                    break;
+                case LOGO_PATH:
+                    logoPath = nextString(reader, logoPath);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (id == null || name == null || type == null || address == null) {
+            throw new ParserException("Missing establishment attributes.");
+        }
+        Establishment establishment = new Establishment(
+            id,
+            name,
+            Type.getType(type),
+            address,
+            phoneNumber,
+            description,
+            url,
+            maxSeats,
+            logoPath);
+        return Interner.ESTABLISHMENTS.intern(id, establishment);
+    }
+
+    private Address decodeAddress(JsonReader reader) throws IOException, ParserException {
+        String street = "";
+        int streetNum = 0;
+        int zipCode = 0;
+        String city = "";
+        String province = "";
+        String country = "";
+
+        expect(reader, JsonToken.BEGIN_OBJECT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            ServerTags tag = TAGS.get(reader.nextName());
+            if (tag == null) {
+                reader.skipValue();
+                continue;
+            }
+            switch (tag) {
+                case STREET:
+                    street = nextString(reader, street);
+                    break;
+                case STREET_NUMBER:
+                    streetNum = nextInt(reader, streetNum);
+                    break;
+                case ZIP_CODE:
+                    zipCode = nextInt(reader, zipCode);
+                    break;
+                case CITY:
+                    city = nextString(reader, city);
+                    break;
+                case PROVINCE:
+                    province = nextString(reader, province);
+                    break;
+                case COUNTRY:
+                    country = nextString(reader, country);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Address(country, zipCode, city, province, streetNum, street);
+    }
+
+    private static void expect(JsonReader reader, JsonToken token)
+        throws IOException, ParserException
+    {
+        if (reader.peek() != token) {
+            throw new ParserException("Expected " + token + " but was " + reader.peek());
+        }
+    }
+
+    /**
+     * @return the next string, or the default value if the next value is not a string
+     */
+    private static String nextString(JsonReader reader, String defaultValue)
+        throws IOException
+    {
+        if (reader.peek() == JsonToken.STRING) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return defaultValue;
+    }
+
+    /**
+     * @return the next integer, or the default value if the next value is not a number
+     * that can be converted to an integer without loss
+     */
+    private static int nextInt(JsonReader reader, int defaultValue)
+        throws IOException, ParserException
+    {
+        if (reader.peek() == JsonToken.NUMBER) {
+            double value = toNumber(reader.nextString()).doubleValue();
+            return value == (int) value ? (int) value : defaultValue;
+        }
+        reader.skipValue();
+        return defaultValue;
+    }
+
+    /**
+     * @return the next value as an integer, as given by a number or a string
+     */
+    private static int nextMandatoryInt(JsonReader reader) throws IOException, ParserException {
+        return (int) nextMandatoryDouble(reader);
+    }
+
+    /**
+     * @return the next value as a double, as given by a number or a string
+     */
+    private static double nextMandatoryDouble(JsonReader reader)
+        throws IOException, ParserException
+    {
+        JsonToken token = reader.peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            throw new ParserException("Expected a number but was " + token);
+        }
+        String value = reader.nextString();
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new ParserException("Expected a number but was " + value);
+        }
+    }
+
+    /**
+     * @return the next value as a string, as given by a string, a number or a boolean
+     */
+    private static String nextMandatoryString(JsonReader reader)
+        throws IOException, ParserException
+    {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            default:
+                throw new ParserException("Expected a string but was " + reader.peek());
+        }
+    }
+
+    private static Number toNumber(String literal) throws ParserException {
+        try {
+            return JSONTreeReader.toNumber(literal);
+        } catch (JSONException e) {
+            throw new ParserException(e);
+        }
+    }
+}
@@ -37,6 +37,9 @@ import static ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject.DEFAU
  */
 public class SpeedDatingEventParser extends Parser<SpeedDatingEvent> {
 
+    private static final LocationParser LOCATION_PARSER = new LocationParser();
+    private static final EstablishmentParser ESTABLISHMENT_PARSER = new EstablishmentParser();
+
     @Override
     public SpeedDatingEvent parse(SafeJSONObject jsonObject) throws ParserException {
         SpeedDatingEvent.Builder builder = new SpeedDatingEvent.Builder();
@@ -58,9 +61,8 @@ public class SpeedDatingEventParser extends Parser<SpeedDatingEvent> {
             throw new ParserException(e);
         }
 
-        Location location = new LocationParser().parse(jsonLocation);
-        Establishment establishment =
-            new EstablishmentParser().parse(jsonEstablishment);
+        Location location = LOCATION_PARSER.parse(jsonLocation);
+        Establishment establishment = ESTABLISHMENT_PARSER.parse(jsonEstablishment);
         int maxPeople = jsonObject.get(MAX_PEOPLE.get(), DEFAULT_INT);
         String dateBegin = jsonObject.get(DATE_BEGIN.get(), DEFAULT_STRING);
         String dateEnd = jsonObject.get(DATE_END.get(), DEFAULT_STRING);
@@ -44,6 +44,9 @@ import static ch.epfl.sweng.swissaffinity.utilities.parsers.SafeJSONObject.DEFAU
  */
 public class UserParser extends Parser<User> {
 
+    private static final AddressParser ADDRESS_PARSER = new AddressParser();
+    private static final LocationParser LOCATION_PARSER = new LocationParser();
+
     @Override
     public User parse(SafeJSONObject jsonObject) throws ParserException {
 
@@ -66,7 +69,7 @@ public class UserParser extends Parser<User> {
         String lastName = jsonObject.get(LAST_NAME.get(), DEFAULT_STRING);
         String mobilePhone = jsonObject.get(MOBILE_PHONE.get(), DEFAULT_STRING);
         String homePhone = jsonObject.get(HOME_PHONE.get(), DEFAULT_STRING);
-        Address address = new AddressParser().parse(jsonAddress);
+        Address address = ADDRESS_PARSER.parse(jsonAddress);
         boolean locked = jsonObject.get(LOCKED.get(), true);
         boolean enabled = jsonObject.get(ENABLED.get(), false);
         Gender gender = Gender.getGender(jsonObject.get(GENDER.get(), "male"));
@@ -79,7 +82,7 @@ public class UserParser extends Parser<User> {
         for (int i = 0; i < areas.length(); i++) {
             try {
                 JSONObject jsonArea = areas.getJSONObject(i);
-                Location location = new LocationParser().parse(new SafeJSONObject(jsonArea));
+                Location location = LOCATION_PARSER.parse(new SafeJSONObject(jsonArea));
                 areasOfInterest.add(location);
             } catch (JSONException e) {
                 throw new ParserException(e);